@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import android.support.annotation.NonNull;
+import com.google.android.material.motion.expression.Language;
+import com.google.android.material.motion.expression.Term;
+
+/**
+ * The {@link Language} of the benchmark's Expression Family.
+ */
+final class BenchmarkLanguage extends Language<BenchmarkLanguage> {
+
+  BenchmarkLanguage() {
+    super();
+  }
+
+  BenchmarkLanguage(@NonNull Term<?, BenchmarkLanguage> previousTerm) {
+    super(previousTerm);
+  }
+
+  /**
+   * @return A Term with a single Plan and a single Initializer.
+   */
+  BenchmarkTerm term() {
+    return new BenchmarkTerm(this, 1, 1);
+  }
+
+  /**
+   * @param width The number of Plans in the Term's working set.
+   * @param initializerDepth The number of nested Initializers, one per simulated subclass.
+   */
+  BenchmarkTerm term(int width, int initializerDepth) {
+    return new BenchmarkTerm(this, width, initializerDepth);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import com.google.android.material.motion.expression.PlanPool.Recyclable;
+import com.google.android.material.motion.expression.PropertyStore;
+import com.google.android.material.motion.expression.PropertyStore.Storable;
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * A {@link Plan} with a few numeric properties, similar to an animation Plan.
+ */
+final class BenchmarkPlan extends Plan<Object> implements Recyclable<BenchmarkPlan>, Storable {
+
+  static final int OFFSET = 0;
+  static final int DURATION = 0;
+
+  float offset;
+  long duration;
+
+  @Override
+  public Class<? extends Performer<Object>> getPerformerClass() {
+    return BenchmarkPerformer.class;
+  }
+
+  @Override
+  public void copyFrom(BenchmarkPlan template) {
+    offset = template.offset;
+    duration = template.duration;
+  }
+
+  @Override
+  public void writeTo(PropertyStore store, int index) {
+    store.setFloat(OFFSET, index, offset);
+    store.setLong(DURATION, index, duration);
+  }
+
+  @Override
+  public void readFrom(PropertyStore store, int index) {
+    offset = store.getFloat(OFFSET, index);
+    duration = store.getLong(DURATION, index);
+  }
+}
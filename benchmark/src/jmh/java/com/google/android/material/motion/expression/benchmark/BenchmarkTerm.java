@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import com.google.android.material.motion.expression.Initializer;
+import com.google.android.material.motion.expression.Initializer.SimpleInitializer;
+import com.google.android.material.motion.expression.Modifier.PropertyModifier;
+import com.google.android.material.motion.expression.Modifier.SimpleModifier;
+import com.google.android.material.motion.expression.Term;
+import com.google.android.material.motion.expression.Work;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * The {@link Term} of the benchmark's Expression Family.
+ */
+final class BenchmarkTerm extends Term<BenchmarkTerm, BenchmarkLanguage> {
+
+  BenchmarkTerm(BenchmarkLanguage language, int width, int initializerDepth) {
+    super(language, initializer(initializerDepth), newPlans(width));
+  }
+
+  BenchmarkTerm(BenchmarkLanguage language, Work work) {
+    super(language, work);
+  }
+
+  BenchmarkTerm offset(final float offset) {
+    return modify(
+        new SimpleModifier() {
+          @Override
+          public void modify(Plan plan) {
+            ((BenchmarkPlan) plan).offset += offset;
+          }
+        });
+  }
+
+  BenchmarkTerm duration(final long duration) {
+    return modify(
+        new SimpleModifier() {
+          @Override
+          public void modify(Plan plan) {
+            ((BenchmarkPlan) plan).duration = duration;
+          }
+        });
+  }
+
+  BenchmarkTerm offsetProperty(float offset) {
+    return modify(PropertyModifier.addFloat(BenchmarkPlan.OFFSET, offset));
+  }
+
+  BenchmarkTerm durationProperty(long duration) {
+    return modify(PropertyModifier.setLong(BenchmarkPlan.DURATION, duration));
+  }
+
+  /**
+   * Simulates a hierarchy of Term subclasses, each of which provides its own Initializer.
+   */
+  private static Initializer initializer(int depth) {
+    Initializer initializer = null;
+    for (int i = 0; i < depth; i++) {
+      final int level = i;
+      initializer =
+          new SimpleInitializer(initializer) {
+            @Override
+            protected void initialize(Plan plan) {
+              ((BenchmarkPlan) plan).duration += level;
+            }
+          };
+    }
+    return initializer;
+  }
+
+  private static Plan[] newPlans(int width) {
+    Plan[] plans = new Plan[width];
+    for (int i = 0; i < width; i++) {
+      plans[i] = new BenchmarkPlan();
+    }
+    return plans;
+  }
+}
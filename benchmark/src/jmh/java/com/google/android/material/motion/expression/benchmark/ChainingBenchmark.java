@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the construction of {@link com.google.android.material.motion.expression.Expression}
+ * chains.
+ */
+@State(Scope.Benchmark)
+public class ChainingBenchmark {
+
+  @Param({"1", "8", "32"})
+  public int depth;
+
+  /**
+   * Language &rarr; Term construction.
+   */
+  @Benchmark
+  public BenchmarkTerm construct() {
+    return new BenchmarkLanguage().term();
+  }
+
+  /**
+   * A chain of {@link #depth} modifiers on a single Term.
+   */
+  @Benchmark
+  public BenchmarkTerm modify() {
+    BenchmarkTerm term = new BenchmarkLanguage().term();
+    for (int i = 0; i < depth; i++) {
+      term = term.offset(1f);
+    }
+    return term;
+  }
+
+  /**
+   * A chain of {@link #depth} Terms joined with {@code and}.
+   */
+  @Benchmark
+  public BenchmarkTerm and() {
+    BenchmarkTerm term = new BenchmarkLanguage().term();
+    for (int i = 1; i < depth; i++) {
+      term = term.and.term();
+    }
+    return term;
+  }
+}
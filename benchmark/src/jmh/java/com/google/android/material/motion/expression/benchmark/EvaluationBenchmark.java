@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import com.google.android.material.motion.runtime.Plan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the evaluation of prebuilt
+ * {@link com.google.android.material.motion.expression.Expression} chains with
+ * {@link com.google.android.material.motion.expression.Term#plans()}.
+ */
+@State(Scope.Benchmark)
+public class EvaluationBenchmark {
+
+  @Param({"1", "8", "32"})
+  public int size;
+
+  /**
+   * A chain of {@link #size} Terms, each with a single Plan and two modifiers.
+   */
+  private BenchmarkTerm deep;
+  /**
+   * A single Term with {@link #size} Plans and two modifiers.
+   */
+  private BenchmarkTerm wide;
+  /**
+   * Like {@link #wide}, with numeric modifiers that write a PropertyStore.
+   */
+  private BenchmarkTerm wideProperties;
+  /**
+   * Two sibling branches that modify the same Term, like the sample's exp3 and exp4.
+   */
+  private BenchmarkTerm left;
+  private BenchmarkTerm right;
+
+  @Setup
+  public void setUp() {
+    deep = new BenchmarkLanguage().term().offset(1f).duration(100L);
+    for (int i = 1; i < size; i++) {
+      deep = deep.and.term().offset(1f).duration(100L);
+    }
+
+    wide = new BenchmarkLanguage().term(size, 1).offset(1f).duration(100L);
+    wideProperties =
+        new BenchmarkLanguage().term(size, 1).offsetProperty(1f).durationProperty(100L);
+
+    BenchmarkTerm trunk = new BenchmarkLanguage().term(size, 1);
+    left = trunk.offset(1f);
+    right = trunk.offset(-1f);
+  }
+
+  @Benchmark
+  public Plan[] deep() {
+    return deep.plans();
+  }
+
+  @Benchmark
+  public Plan[] wide() {
+    return wide.plans();
+  }
+
+  @Benchmark
+  public Plan[] wideProperties() {
+    return wideProperties.plans();
+  }
+
+  @Benchmark
+  public void branches(Blackhole blackhole) {
+    blackhole.consume(left.plans());
+    blackhole.consume(right.plans());
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import com.google.android.material.motion.runtime.Plan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link com.google.android.material.motion.expression.Initializer} chains of increasing
+ * depth, as created by deep hierarchies of
+ * {@link com.google.android.material.motion.expression.Term} subclasses.
+ *
+ * <p>
+ * A Term only runs its Initializers the first time its Plans are needed, so every operation
+ * constructs a new Term.
+ */
+@State(Scope.Benchmark)
+public class InitializerBenchmark {
+
+  @Param({"1", "4", "16"})
+  public int depth;
+
+  @Param({"1", "16"})
+  public int width;
+
+  @Benchmark
+  public Plan[] initialize() {
+    return new BenchmarkLanguage().term(width, depth).plans();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.benchmark;
+
+import com.google.android.material.motion.expression.PlanBuffer;
+import com.google.android.material.motion.expression.PlanPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the steady-state evaluation of a prebuilt
+ * {@link com.google.android.material.motion.expression.Expression} chain into a reused
+ * {@link PlanBuffer}, with a {@link PlanPool} installed and the Plans released after each
+ * evaluation. The allocation rate per operation should be zero.
+ */
+@State(Scope.Benchmark)
+public class PooledEvaluationBenchmark {
+
+  @Param({"1", "8", "32"})
+  public int size;
+
+  /**
+   * A chain of {@link #size} Terms, each with a single Plan and two modifiers.
+   */
+  private BenchmarkTerm deep;
+  private PlanBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    deep = new BenchmarkLanguage().term().offset(1f).duration(100L);
+    for (int i = 1; i < size; i++) {
+      deep = deep.and.term().offset(1f).duration(100L);
+    }
+
+    buffer = new PlanBuffer(size);
+    PlanPool.install(new PlanPool(size));
+  }
+
+  @TearDown
+  public void tearDown() {
+    PlanPool.install(null);
+  }
+
+  @Benchmark
+  public int deep() {
+    deep.plans(null, buffer);
+    int evaluated = buffer.size();
+    PlanPool.release(buffer);
+    return evaluated;
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * An annotation processor that generates a reflection-free factory for every concrete
+ * {@code Term} and {@code Language} subclass in the compilation.
+ *
+ * <p>
+ * Each subclass is validated to declare a chaining constructor with the parameter types required by
+ * the base class. A subclass that does not is reported as a compile error, instead of failing with
+ * a {@code BadImplementationException} the first time it is chained.
+ *
+ * <p>
+ * No factory is generated for a subclass whose chaining constructor is private, or that is nested
+ * in a private class, since the factory could not invoke it. Such a subclass is still chained
+ * through reflection, so its chaining constructor must be annotated with {@code @Keep}, and a
+ * warning is reported if it is not.
+ *
+ * <p>
+ * The generated factory is named after the subclass's binary name, with {@code $} replaced by
+ * {@code _}, and suffixed with {@value #FACTORY_SUFFIX}. It is discovered by the library the first
+ * time the subclass is chained, and used instead of the reflective chaining constructor.
+ */
+public final class ChainingFactoryProcessor extends AbstractProcessor {
+
+  /**
+   * The suffix of the generated factory class names. Must match the library.
+   */
+  static final String FACTORY_SUFFIX = "_ChainingFactory";
+
+  private static final String PACKAGE = "com.google.android.material.motion.expression";
+  private static final String TERM = PACKAGE + ".Term";
+  private static final String LANGUAGE = PACKAGE + ".Language";
+  private static final String WORK = PACKAGE + ".Work";
+  private static final String KEEP = "android.support.annotation.Keep";
+
+  private Elements elements;
+  private Types types;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    elements = processingEnv.getElementUtils();
+    types = processingEnv.getTypeUtils();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton("*");
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement term = elements.getTypeElement(TERM);
+    TypeElement language = elements.getTypeElement(LANGUAGE);
+    TypeElement work = elements.getTypeElement(WORK);
+    if (term == null || language == null || work == null) {
+      // The expression library is not on the classpath of this compilation.
+      return false;
+    }
+
+    List<TypeElement> classes = new ArrayList<>();
+    for (Element element : roundEnv.getRootElements()) {
+      collectClasses(element, classes);
+    }
+
+    for (TypeElement type : classes) {
+      if (isConcreteSubclass(type, term)) {
+        processTerm(type, language, work);
+      } else if (isConcreteSubclass(type, language)) {
+        processLanguage(type, term);
+      }
+    }
+
+    // Do not claim any annotations, other processors may be interested in them.
+    return false;
+  }
+
+  private void processTerm(TypeElement type, TypeElement language, TypeElement work) {
+    ExecutableElement constructor = null;
+    for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      List<? extends VariableElement> parameters = candidate.getParameters();
+      if (parameters.size() == 2
+          && isSubtype(parameters.get(0).asType(), language)
+          && isSameErasure(parameters.get(1).asType(), work)) {
+        constructor = candidate;
+        break;
+      }
+    }
+
+    if (validate(type, constructor)) {
+      String languageClass = erasure(constructor.getParameters().get(0).asType());
+      writeFactory(
+          type,
+          "Term.Factory",
+          "public Term newInstance(Language language, Work work) {",
+          String.format(
+              Locale.US,
+              "return new %s((%s) language, work);",
+              type.getQualifiedName(),
+              languageClass),
+          LANGUAGE,
+          TERM,
+          WORK);
+    }
+  }
+
+  private void processLanguage(TypeElement type, TypeElement term) {
+    ExecutableElement constructor = null;
+    for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      List<? extends VariableElement> parameters = candidate.getParameters();
+      if (parameters.size() == 1 && isSameErasure(parameters.get(0).asType(), term)) {
+        constructor = candidate;
+        break;
+      }
+    }
+
+    if (validate(type, constructor)) {
+      writeFactory(
+          type,
+          "Language.Factory",
+          "public Language newInstance(Term previousTerm) {",
+          String.format(Locale.US, "return new %s(previousTerm);", type.getQualifiedName()),
+          LANGUAGE,
+          TERM);
+    }
+  }
+
+  /**
+   * Reports an error if the given class cannot be chained, and a warning if it can only be chained
+   * through reflection without being kept.
+   *
+   * @return Whether a factory can be generated for the class.
+   */
+  private boolean validate(TypeElement type, ExecutableElement constructor) {
+    if (constructor == null) {
+      error(
+          type,
+          "%s does not correctly implement a chaining constructor with the required "
+              + "parameters. See the constructor javadoc for Language or Term.");
+      return false;
+    }
+
+    if (type.getNestingKind() == NestingKind.MEMBER
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      error(type, "%s must be a static class, so that it can be chained.");
+      return false;
+    }
+
+    if (!isAccessible(type, constructor)) {
+      // The library falls back to the reflective chaining constructor.
+      if (!isKept(constructor)) {
+        print(
+            Diagnostic.Kind.WARNING,
+            constructor,
+            "The chaining constructor of %s is not accessible to a generated factory, so it is "
+                + "invoked through reflection. Annotate it with @Keep, or make it and its "
+                + "enclosing classes non-private.");
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Whether a generated factory in the same package can invoke the given chaining constructor.
+   */
+  private boolean isAccessible(TypeElement type, ExecutableElement constructor) {
+    if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    for (Element element = type;
+        element.getKind() != ElementKind.PACKAGE;
+        element = element.getEnclosingElement()) {
+      if (element.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isKept(ExecutableElement constructor) {
+    for (AnnotationMirror annotation : constructor.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(KEEP)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes a factory that implements the given interface with a single method.
+   *
+   * @param imports The qualified names of the classes that the method signature refers to.
+   */
+  private void writeFactory(
+      TypeElement type,
+      String factoryInterface,
+      String methodSignature,
+      String methodBody,
+      String... imports) {
+    PackageElement packageElement = elements.getPackageOf(type);
+    String packageName = packageElement.getQualifiedName().toString();
+    String factoryName = factoryName(type, packageName);
+
+    StringBuilder importStatements = new StringBuilder();
+    for (String qualifiedName : imports) {
+      importStatements.append("import ").append(qualifiedName).append(";\n");
+    }
+
+    String source =
+        "// Generated by " + ChainingFactoryProcessor.class.getSimpleName() + ". Do not modify.\n"
+            + (packageName.isEmpty() ? "" : "package " + packageName + ";\n")
+            + "\n"
+            + importStatements
+            + "\n"
+            + "/**\n"
+            + " * Creates chained instances of {@link " + type.getQualifiedName() + "}"
+            + " without reflection.\n"
+            + " */\n"
+            + "@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n"
+            + "public final class " + factoryName + " implements " + factoryInterface + " {\n"
+            + "\n"
+            + "  @Override\n"
+            + "  " + methodSignature + "\n"
+            + "    " + methodBody + "\n"
+            + "  }\n"
+            + "}\n";
+
+    String qualifiedName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+      Writer writer = file.openWriter();
+      try {
+        writer.write(source);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      error(type, "Could not generate the chaining factory for %s.");
+    }
+  }
+
+  /**
+   * Returns the simple name of the generated factory. For nested classes, the names of the
+   * enclosing classes are included.
+   */
+  private String factoryName(TypeElement type, String packageName) {
+    String binaryName = elements.getBinaryName(type).toString();
+    if (!packageName.isEmpty()) {
+      binaryName = binaryName.substring(packageName.length() + 1);
+    }
+    return binaryName.replace('$', '_') + FACTORY_SUFFIX;
+  }
+
+  private void collectClasses(Element element, List<TypeElement> classes) {
+    if (element.getKind() != ElementKind.CLASS) {
+      return;
+    }
+    TypeElement type = (TypeElement) element;
+    if (type.getNestingKind() == NestingKind.ANONYMOUS
+        || type.getNestingKind() == NestingKind.LOCAL) {
+      return;
+    }
+
+    classes.add(type);
+    for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+      collectClasses(nested, classes);
+    }
+  }
+
+  private boolean isConcreteSubclass(TypeElement type, TypeElement superclass) {
+    return !type.getModifiers().contains(Modifier.ABSTRACT)
+        && isSubtype(type.asType(), superclass);
+  }
+
+  private boolean isSubtype(TypeMirror type, TypeElement superclass) {
+    return types.isSubtype(types.erasure(type), types.erasure(superclass.asType()));
+  }
+
+  private boolean isSameErasure(TypeMirror type, TypeElement other) {
+    return types.isSameType(types.erasure(type), types.erasure(other.asType()));
+  }
+
+  private String erasure(TypeMirror type) {
+    return types.erasure(type).toString();
+  }
+
+  private void error(Element element, String format) {
+    print(Diagnostic.Kind.ERROR, element, format);
+  }
+
+  private void print(Diagnostic.Kind kind, Element element, String format) {
+    Element type = element;
+    while (!(type instanceof TypeElement)) {
+      type = type.getEnclosingElement();
+    }
+    processingEnv
+        .getMessager()
+        .printMessage(
+            kind,
+            String.format(Locale.US, format, ((TypeElement) type).getQualifiedName()),
+            element);
+  }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression.compiler;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compiles small Expression families with {@link ChainingFactoryProcessor}, against minimal
+ * sources of the library's base classes.
+ */
+public class ChainingFactoryProcessorTests {
+
+  private static final JavaFileObject KEEP =
+      source(
+          "android.support.annotation.Keep",
+          "package android.support.annotation;",
+          "public @interface Keep {}");
+  private static final JavaFileObject WORK =
+      source(
+          "com.google.android.material.motion.expression.Work",
+          "package com.google.android.material.motion.expression;",
+          "public abstract class Work {}");
+  private static final JavaFileObject LANGUAGE =
+      source(
+          "com.google.android.material.motion.expression.Language",
+          "package com.google.android.material.motion.expression;",
+          "public abstract class Language<L extends Language<L>> {",
+          "  protected Language() {}",
+          "  protected Language(Term<?, L> previousTerm) {}",
+          "  public interface Factory<L extends Language<L>> {",
+          "    L newInstance(Term<?, L> previousTerm);",
+          "  }",
+          "}");
+  private static final JavaFileObject TERM =
+      source(
+          "com.google.android.material.motion.expression.Term",
+          "package com.google.android.material.motion.expression;",
+          "public abstract class Term<T extends Term<?, L>, L extends Language<L>> {",
+          "  protected Term(L language, Work work) {}",
+          "  public interface Factory<T extends Term<?, L>, L extends Language<L>> {",
+          "    T newInstance(L language, Work work);",
+          "  }",
+          "}");
+
+  private File output;
+  private DiagnosticCollector<JavaFileObject> diagnostics;
+
+  @Before
+  public void setUp() throws IOException {
+    output = Files.createTempDirectory("processor").toFile();
+    diagnostics = new DiagnosticCollector<>();
+  }
+
+  @Test
+  public void generatesFactoriesForTermAndLanguage() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.TestLanguage",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestLanguage extends Language<TestLanguage> {",
+                "  TestLanguage(Term<?, TestLanguage> previousTerm) {",
+                "    super(previousTerm);",
+                "  }",
+                "}"),
+            source(
+                "test.TestTerm",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestTerm<T extends TestTerm<?>>",
+                "    extends Term<T, TestLanguage> {",
+                "  TestTerm(TestLanguage language, Work work) {",
+                "    super(language, work);",
+                "  }",
+                "}"));
+
+    assertThat(success).isTrue();
+    assertThat(messages(Diagnostic.Kind.WARNING)).isEmpty();
+    assertThat(generated("test/TestLanguage_ChainingFactory.class").exists()).isTrue();
+    assertThat(generated("test/TestTerm_ChainingFactory.class").exists()).isTrue();
+  }
+
+  @Test
+  public void importsOnlyTheClassesEachFactoryUses() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.TestLanguage",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestLanguage extends Language<TestLanguage> {",
+                "  TestLanguage(Term<?, TestLanguage> previousTerm) {",
+                "    super(previousTerm);",
+                "  }",
+                "}"),
+            source(
+                "test.TestTerm",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestTerm<T extends TestTerm<?>>",
+                "    extends Term<T, TestLanguage> {",
+                "  TestTerm(TestLanguage language, Work work) {",
+                "    super(language, work);",
+                "  }",
+                "}"));
+
+    assertThat(success).isTrue();
+    String workImport = "import com.google.android.material.motion.expression.Work;";
+    assertThat(read("test/TestLanguage_ChainingFactory.java").contains(workImport)).isFalse();
+    assertThat(read("test/TestTerm_ChainingFactory.java")).contains(workImport);
+  }
+
+  @Test
+  public void namesFactoryOfNestedClassAfterItsEnclosingClasses() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.Outer",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public class Outer {",
+                "  public static final class NestedLanguage extends Language<NestedLanguage> {",
+                "    NestedLanguage(Term<?, NestedLanguage> previousTerm) {",
+                "      super(previousTerm);",
+                "    }",
+                "  }",
+                "}"));
+
+    assertThat(success).isTrue();
+    assertThat(generated("test/Outer_NestedLanguage_ChainingFactory.class").exists()).isTrue();
+  }
+
+  @Test
+  public void reportsMissingChainingConstructorAsError() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.TestLanguage",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestLanguage extends Language<TestLanguage> {",
+                "  public TestLanguage() {}",
+                "}"));
+
+    assertThat(success).isFalse();
+    assertThat(messages(Diagnostic.Kind.ERROR)).hasSize(1);
+    assertThat(messages(Diagnostic.Kind.ERROR).get(0)).contains("test.TestLanguage");
+  }
+
+  @Test
+  public void fallsBackToReflectionForPrivateKeptChainingConstructor() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.TestLanguage",
+                "package test;",
+                "import android.support.annotation.Keep;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestLanguage extends Language<TestLanguage> {",
+                "  @Keep",
+                "  private TestLanguage(Term<?, TestLanguage> previousTerm) {",
+                "    super(previousTerm);",
+                "  }",
+                "}"));
+
+    assertThat(success).isTrue();
+    assertThat(messages(Diagnostic.Kind.WARNING)).isEmpty();
+    assertThat(generated("test/TestLanguage_ChainingFactory.class").exists()).isFalse();
+  }
+
+  @Test
+  public void warnsAboutPrivateChainingConstructorWithoutKeep() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.TestLanguage",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public final class TestLanguage extends Language<TestLanguage> {",
+                "  private TestLanguage(Term<?, TestLanguage> previousTerm) {",
+                "    super(previousTerm);",
+                "  }",
+                "}"));
+
+    assertThat(success).isTrue();
+    assertThat(messages(Diagnostic.Kind.WARNING)).hasSize(1);
+    assertThat(generated("test/TestLanguage_ChainingFactory.class").exists()).isFalse();
+  }
+
+  @Test
+  public void reportsInnerClassAsError() throws IOException {
+    boolean success =
+        compile(
+            source(
+                "test.Outer",
+                "package test;",
+                "import com.google.android.material.motion.expression.*;",
+                "public class Outer {",
+                "  public final class InnerLanguage extends Language<InnerLanguage> {",
+                "    InnerLanguage(Term<?, InnerLanguage> previousTerm) {",
+                "      super(previousTerm);",
+                "    }",
+                "  }",
+                "}"));
+
+    assertThat(success).isFalse();
+    assertThat(messages(Diagnostic.Kind.ERROR)).hasSize(1);
+  }
+
+  private boolean compile(JavaFileObject... sources) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.US, null);
+    try {
+      fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(output));
+      fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(output));
+
+      List<JavaFileObject> units = new ArrayList<>(Arrays.asList(KEEP, WORK, LANGUAGE, TERM));
+      units.addAll(Arrays.asList(sources));
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(null, fileManager, diagnostics, null, null, units);
+      task.setProcessors(Collections.singleton(new ChainingFactoryProcessor()));
+      return task.call();
+    } finally {
+      fileManager.close();
+    }
+  }
+
+  private List<String> messages(Diagnostic.Kind kind) {
+    List<String> messages = new ArrayList<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == kind) {
+        messages.add(diagnostic.getMessage(Locale.US));
+      }
+    }
+    return messages;
+  }
+
+  private File generated(String path) {
+    return new File(output, path);
+  }
+
+  private String read(String path) throws IOException {
+    return new String(Files.readAllBytes(generated(path).toPath()), StandardCharsets.UTF_8);
+  }
+
+  private static JavaFileObject source(String qualifiedName, String... lines) {
+    final StringBuilder code = new StringBuilder();
+    for (String line : lines) {
+      code.append(line).append('\n');
+    }
+    URI uri = URI.create("string:///" + qualifiedName.replace('.', '/') + ".java");
+    return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+}
@@ -14,3 +14,11 @@
 -keepclassmembers class * {
    @android.support.annotation.Keep *;
 }
+
+# Factories generated by the expression annotation processor are looked up by name, which is
+# derived from the name of the Term or Language subclass.
+-keep class **_ChainingFactory {
+   <init>();
+}
+-keepnames class * extends com.google.android.material.motion.expression.Term
+-keepnames class * extends com.google.android.material.motion.expression.Language
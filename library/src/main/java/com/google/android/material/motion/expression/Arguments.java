@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A lightweight bundle of values bound to {@link Parameter Parameters}.
+ *
+ * <p>
+ * An instance can be reused across evaluations: rebinding a Parameter that is already bound does
+ * not allocate. Arguments are not thread-safe.
+ */
+public final class Arguments {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private Parameter<?>[] parameters = new Parameter<?>[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Binds the given value to the given {@link Parameter}, replacing any previously bound value.
+   *
+   * @return This instance, to enable chaining.
+   */
+  public <V> Arguments set(Parameter<V> parameter, @Nullable V value) {
+    for (int i = 0; i < size; i++) {
+      if (parameters[i] == parameter) {
+        values[i] = value;
+        return this;
+      }
+    }
+
+    if (size == parameters.length) {
+      parameters = Arrays.copyOf(parameters, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    parameters[size] = parameter;
+    values[size] = value;
+    size++;
+    return this;
+  }
+
+  /**
+   * Returns the value bound to the given {@link Parameter}, or its default value if it is not
+   * bound.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked") // The value was bound with the same Parameter type.
+  public <V> V get(Parameter<V> parameter) {
+    for (int i = 0; i < size; i++) {
+      if (parameters[i] == parameter) {
+        return (V) values[i];
+      }
+    }
+    return parameter.getDefaultValue();
+  }
+
+  /**
+   * Unbinds all {@link Parameter Parameters}.
+   */
+  public void clear() {
+    Arrays.fill(parameters, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A per-class registry of the means to create chained {@link Expression} instances.
+ *
+ * <p>
+ * A registered {@link Term.Factory} or {@link Language.Factory} is always preferred. Next, a
+ * factory generated by the expression annotation processor is looked up once per class. Otherwise
+ * the chaining constructor is looked up and made accessible once per class, and cached for all
+ * subsequent instantiations.
+ */
+final class ChainingFactories {
+
+  /**
+   * The suffix of the class names generated by the expression annotation processor.
+   */
+  private static final String GENERATED_FACTORY_SUFFIX = "_ChainingFactory";
+
+  private static final ConcurrentMap<Class<?>, Term.Factory<?, ?>> termFactories =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Class<?>, Language.Factory<?>> languageFactories =
+      new ConcurrentHashMap<>();
+  /**
+   * The classes for which a generated factory has already been looked up. It is checked before it
+   * is written, since classes without a generated factory consult it on every chained instance.
+   */
+  private static final Set<Class<?>> generatedFactoryLookups =
+      Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+  private static final Map<Class<?>, TermConstructor> termConstructors =
+      new ConcurrentHashMap<>();
+  private static final Map<Class<?>, Constructor<?>> languageConstructors =
+      new ConcurrentHashMap<>();
+
+  private ChainingFactories() {}
+
+  static void registerTermFactory(Class<?> termClass, Term.Factory<?, ?> factory) {
+    termFactories.put(termClass, factory);
+  }
+
+  static void registerLanguageFactory(Class<?> languageClass, Language.Factory<?> factory) {
+    languageFactories.put(languageClass, factory);
+  }
+
+  @Nullable
+  static Term.Factory<?, ?> termFactory(Class<?> termClass) {
+    Term.Factory<?, ?> factory = termFactories.get(termClass);
+    if (factory == null
+        && !generatedFactoryLookups.contains(termClass)
+        && generatedFactoryLookups.add(termClass)) {
+      factory = generatedFactory(termClass, Term.Factory.class);
+      if (factory != null) {
+        Term.Factory<?, ?> registered = termFactories.putIfAbsent(termClass, factory);
+        factory = registered != null ? registered : factory;
+      }
+    }
+    return factory;
+  }
+
+  @Nullable
+  static Language.Factory<?> languageFactory(Class<?> languageClass) {
+    Language.Factory<?> factory = languageFactories.get(languageClass);
+    if (factory == null
+        && !generatedFactoryLookups.contains(languageClass)
+        && generatedFactoryLookups.add(languageClass)) {
+      factory = generatedFactory(languageClass, Language.Factory.class);
+      if (factory != null) {
+        Language.Factory<?> registered = languageFactories.putIfAbsent(languageClass, factory);
+        factory = registered != null ? registered : factory;
+      }
+    }
+    return factory;
+  }
+
+  /**
+   * Instantiates the factory generated by the expression annotation processor for the given
+   * {@link Expression} subclass.
+   *
+   * @return The generated factory, or null if the subclass was not processed.
+   */
+  @Nullable
+  @SuppressWarnings("TryWithIdenticalCatches")
+  private static <F> F generatedFactory(Class<?> klass, Class<F> factoryClass) {
+    String name = klass.getName();
+    int packageEnd = name.lastIndexOf('.') + 1;
+    String generatedName =
+        name.substring(0, packageEnd)
+            + name.substring(packageEnd).replace('$', '_')
+            + GENERATED_FACTORY_SUFFIX;
+
+    try {
+      Class<?> generatedClass = Class.forName(generatedName, true, klass.getClassLoader());
+      return factoryClass.cast(generatedClass.newInstance());
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    } catch (InstantiationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the accessible chaining constructor of the given {@link Term} subclass.
+   *
+   * @throws NoSuchMethodException If the Term does not declare a chaining constructor.
+   */
+  @SuppressWarnings("unchecked") // The constructor was looked up on termClass.
+  static <T> Constructor<T> termConstructor(Class<T> termClass, Class<?> languageClass)
+      throws NoSuchMethodException {
+    TermConstructor cached = termConstructors.get(termClass);
+    if (cached == null || cached.languageClass != languageClass) {
+      Constructor<T> constructor = termClass.getDeclaredConstructor(languageClass, Work.class);
+      constructor.setAccessible(true);
+
+      cached = new TermConstructor(constructor, languageClass);
+      termConstructors.put(termClass, cached);
+    }
+    return (Constructor<T>) cached.constructor;
+  }
+
+  /**
+   * Returns the accessible chaining constructor of the given {@link Language} subclass.
+   *
+   * @throws NoSuchMethodException If the Language does not declare a chaining constructor.
+   */
+  @SuppressWarnings("unchecked") // The constructor was looked up on languageClass.
+  static <L> Constructor<L> languageConstructor(Class<L> languageClass)
+      throws NoSuchMethodException {
+    Constructor<?> constructor = languageConstructors.get(languageClass);
+    if (constructor == null) {
+      constructor = languageClass.getDeclaredConstructor(Term.class);
+      constructor.setAccessible(true);
+
+      languageConstructors.put(languageClass, constructor);
+    }
+    return (Constructor<L>) constructor;
+  }
+
+  /**
+   * A {@link Term} chaining constructor, along with the {@link Language} class it was resolved
+   * for.
+   */
+  private static final class TermConstructor {
+
+    private final Constructor<?> constructor;
+    private final Class<?> languageClass;
+
+    private TermConstructor(Constructor<?> constructor, Class<?> languageClass) {
+      this.constructor = constructor;
+      this.languageClass = languageClass;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A flat, immutable program that generates the same {@link Plan Plans} as the {@link Term} it was
+ * compiled from with {@link Term#compile()}.
+ *
+ * <p>
+ * Compiling walks the {@link Expression} chain and its {@link Work} once, and records the
+ * initialized Plan templates of every Term along with the ordered {@link Modifier Modifiers} that
+ * apply to them. {@link #instantiate()} then only copies the templates and runs the Modifiers,
+ * without any reflection, chain allocation or recursion. Its cost is proportional to the number
+ * of Plans, rather than to the structure of the Expression chain.
+ */
+public final class CompiledExpression {
+
+  /**
+   * The initialized Plan templates of every Term in the chain, in order.
+   */
+  private final Plan[] templates;
+  /**
+   * The Modifier stages of every Term in the chain, in order. Runs of Modifiers that modify each
+   * Plan independently remain fused into a single stage.
+   */
+  private final Stage[] stages;
+
+  CompiledExpression(Plan[] templates, Stage[] stages) {
+    this.templates = templates;
+    this.stages = stages;
+  }
+
+  /**
+   * Generates a new set of {@link Plan Plans}. Every call returns new Plan instances, which are
+   * owned by the caller.
+   *
+   * @return The Plans defined by the compiled {@link Expression} chain.
+   */
+  public Plan[] instantiate() {
+    return instantiate(null);
+  }
+
+  /**
+   * Generates a new set of {@link Plan Plans}, binding the {@link Parameter Parameters} of the
+   * compiled {@link Expression} chain to the given {@link Arguments}. Every call returns new Plan
+   * instances, which are owned by the caller.
+   *
+   * @param arguments The values of the Parameters, or null to use their defaults.
+   * @return The Plans defined by the compiled Expression chain.
+   */
+  public Plan[] instantiate(@Nullable Arguments arguments) {
+    Plan[] plans = new Plan[templates.length];
+    for (int i = 0; i < templates.length; i++) {
+      plans[i] = PlanPool.copy(templates[i]);
+    }
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    for (Stage stage : stages) {
+      if (listener != null) {
+        stage.instrumentedApply(listener, plans, arguments);
+      } else {
+        stage.apply(plans, arguments);
+      }
+    }
+    return plans;
+  }
+
+  /**
+   * @return The number of {@link Plan Plans} generated by {@link #instantiate()}.
+   */
+  public int size() {
+    return templates.length;
+  }
+
+  Plan[] templates() {
+    return templates;
+  }
+
+  Stage[] stages() {
+    return stages;
+  }
+
+  /**
+   * A single step of the program, which modifies the Plans of one Term.
+   */
+  static final class Stage {
+
+    final int from;
+    final int to;
+    @Nullable final Modifier.PlanModifier[] fusedModifiers;
+    @Nullable final Modifier modifier;
+
+    Stage(
+        int from,
+        int to,
+        @Nullable Modifier.PlanModifier[] fusedModifiers,
+        @Nullable Modifier modifier) {
+      this.from = from;
+      this.to = to;
+      this.fusedModifiers = fusedModifiers;
+      this.modifier = modifier;
+    }
+
+    private void apply(Plan[] plans, @Nullable Arguments arguments) {
+      if (fusedModifiers != null) {
+        for (int i = from; i < to; i++) {
+          Plan plan = plans[i];
+          for (Modifier.PlanModifier modifier : fusedModifiers) {
+            modifier.modifyPlan(plan, arguments);
+          }
+        }
+      } else {
+        // A Modifier expects exactly the working set of its Term.
+        Plan[] workingSet = Arrays.copyOfRange(plans, from, to);
+        modifier.modify(workingSet, arguments);
+        System.arraycopy(workingSet, 0, plans, from, workingSet.length);
+      }
+    }
+
+    /**
+     * Applies each Modifier of this stage in turn, reporting the time spent in each.
+     */
+    private void instrumentedApply(
+        Instrumentation.Listener listener, Plan[] plans, @Nullable Arguments arguments) {
+      if (fusedModifiers != null) {
+        for (Modifier.PlanModifier modifier : fusedModifiers) {
+          long start = System.nanoTime();
+          for (int i = from; i < to; i++) {
+            modifier.modifyPlan(plans[i], arguments);
+          }
+          listener.onModify(modifier, to - from, System.nanoTime() - start);
+        }
+      } else {
+        long start = System.nanoTime();
+        apply(plans, arguments);
+        listener.onModify(modifier, to - from, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Builds a {@link CompiledExpression} while walking an {@link Expression} chain front to back.
+   * Each {@link Work} adds itself from its innermost unit of work outwards.
+   */
+  static final class Builder {
+
+    private final List<Plan> templates = new ArrayList<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private int from;
+
+    /**
+     * Starts the working set of the next {@link Term} in the chain.
+     */
+    void beginTerm() {
+      from = templates.size();
+    }
+
+    void addTemplates(Plan[] plans) {
+      templates.addAll(Arrays.asList(plans));
+    }
+
+    void addModifier(Modifier modifier) {
+      stages.add(new Stage(from, templates.size(), null, modifier));
+    }
+
+    void addFusedModifiers(Modifier.PlanModifier[] modifiers) {
+      stages.add(new Stage(from, templates.size(), modifiers, null));
+    }
+
+    CompiledExpression build() {
+      return new CompiledExpression(
+          templates.toArray(new Plan[templates.size()]), stages.toArray(new Stage[stages.size()]));
+    }
+  }
+}
@@ -41,6 +41,21 @@ import java.util.Locale;
  * element.addPlans(fadeIn.plans()); // easeOut should not be applied.}</pre>
  *
  * <p>
+ * <b>Thread safety</b>
+ *
+ * <p>
+ * Every node of an Expression chain is immutable once constructed, so a chain can be published to
+ * and built upon from any thread. Any number of threads may evaluate the same chain, or sibling
+ * branches of it, concurrently. Each Term initializes its Plan templates exactly once, and every
+ * evaluation that modifies them works on its own copies. Plans generated by an unmodified Term
+ * may be its shared templates, and must not be mutated. While a {@link PlanPool} is installed, or
+ * when evaluating through a {@link ParallelEvaluator}, every generated Plan is owned by the caller.
+ *
+ * <p>
+ * This requires that {@link Initializer Initializers} and {@link Modifier Modifiers} only mutate
+ * the Plans passed into them, and keep no other mutable state.
+ *
+ * <p>
  * <b>Intelligent code completion</b>
  *
  * <p>
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads and writes a compact binary format of {@link CompiledExpression CompiledExpressions}, so
+ * that a catalogue of motion specs can be loaded at startup without building any
+ * {@link Expression} chain.
+ *
+ * <p>
+ * A file holds named CompiledExpressions. Each one is stored as its Plan templates, written by a
+ * registered {@link PlanCodec}, followed by its Modifier stages. Each {@link Modifier} is stored as
+ * the id of a registered {@link ModifierFactory} and the values it was created with, as in
+ * {@link Modifier.SimpleModifier#SimpleModifier(Object...)}. Values may be null, booleans, ints,
+ * longs, floats, doubles, Strings or {@link Parameter Parameters}. A run of consecutive
+ * {@link Modifier.PropertyModifier PropertyModifiers} is stored as its members. The factories of
+ * the built-in PropertyModifiers, such as
+ * {@link Modifier.PropertyModifier#setFloat(int, float)}, are registered by default.
+ *
+ * <p>
+ * Loading does not use reflection. The file is memory-mapped, and every Plan and Modifier is
+ * created by its registered codec or factory. Register them once, before reading or writing. Every
+ * count and index in the file is checked before it is used, so that a malformed file fails with an
+ * {@link IOException}.
+ */
+public final class ExpressionSerializer {
+
+  static final int MAGIC = 0x4d4d4558; // "MMEX"
+  static final int VERSION = 2;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_BOOLEAN = 1;
+  private static final byte VALUE_INT = 2;
+  private static final byte VALUE_LONG = 3;
+  private static final byte VALUE_FLOAT = 4;
+  private static final byte VALUE_DOUBLE = 5;
+  private static final byte VALUE_STRING = 6;
+  private static final byte VALUE_PARAMETER = 7;
+
+  // The fewest bytes each element can take, which bound the counts read from a file.
+  private static final int MIN_EXPRESSION_SIZE = 2 + 4 + 4; // Name, template and stage counts.
+  private static final int MIN_PLAN_SIZE = 2; // Codec id.
+  private static final int MIN_STAGE_SIZE = 4 + 4 + 1 + 4; // Range, fused flag, modifier count.
+  private static final int MIN_MODIFIER_SIZE = 2 + 4; // Factory id, value count.
+  private static final int MIN_VALUE_SIZE = 1; // Value type.
+
+  private static final ConcurrentMap<Class<?>, String> planIds = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, PlanCodec<?>> planCodecs = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Class<?>, String> modifierIds = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, ModifierFactory> modifierFactories =
+      new ConcurrentHashMap<>();
+
+  static {
+    registerPropertyModifierFactories();
+  }
+
+  private ExpressionSerializer() {}
+
+  /**
+   * Registers the {@link PlanCodec} for the given {@link Plan} class.
+   *
+   * @param id The stable id written in place of the Plan class.
+   */
+  public static <P extends Plan> void registerPlanCodec(
+      String id, Class<P> planClass, PlanCodec<P> codec) {
+    planIds.put(planClass, id);
+    planCodecs.put(id, codec);
+  }
+
+  /**
+   * Registers the {@link ModifierFactory} that recreates instances of the given {@link Modifier}
+   * class from their values.
+   *
+   * @param id The stable id written in place of the Modifier class.
+   */
+  public static void registerModifierFactory(
+      String id, Class<? extends Modifier> modifierClass, ModifierFactory factory) {
+    modifierIds.put(modifierClass, id);
+    modifierFactories.put(id, factory);
+  }
+
+  private static void registerPropertyModifierFactories() {
+    registerModifierFactory(
+        "PropertyModifier.setFloat",
+        Modifier.PropertyModifier.setFloat(0, 0f).getClass(),
+        new ModifierFactory() {
+          @Override
+          public Modifier newInstance(Object[] values) {
+            return Modifier.PropertyModifier.setFloat((Integer) values[0], (Float) values[1]);
+          }
+        });
+    registerModifierFactory(
+        "PropertyModifier.addFloat",
+        Modifier.PropertyModifier.addFloat(0, 0f).getClass(),
+        new ModifierFactory() {
+          @Override
+          public Modifier newInstance(Object[] values) {
+            return Modifier.PropertyModifier.addFloat((Integer) values[0], (Float) values[1]);
+          }
+        });
+    registerModifierFactory(
+        "PropertyModifier.scaleFloat",
+        Modifier.PropertyModifier.scaleFloat(0, 1f).getClass(),
+        new ModifierFactory() {
+          @Override
+          public Modifier newInstance(Object[] values) {
+            return Modifier.PropertyModifier.scaleFloat((Integer) values[0], (Float) values[1]);
+          }
+        });
+    registerModifierFactory(
+        "PropertyModifier.setLong",
+        Modifier.PropertyModifier.setLong(0, 0L).getClass(),
+        new ModifierFactory() {
+          @Override
+          public Modifier newInstance(Object[] values) {
+            return Modifier.PropertyModifier.setLong((Integer) values[0], (Long) values[1]);
+          }
+        });
+    registerModifierFactory(
+        "PropertyModifier.addLong",
+        Modifier.PropertyModifier.addLong(0, 0L).getClass(),
+        new ModifierFactory() {
+          @Override
+          public Modifier newInstance(Object[] values) {
+            return Modifier.PropertyModifier.addLong((Integer) values[0], (Long) values[1]);
+          }
+        });
+  }
+
+  /**
+   * Writes the given named {@link CompiledExpression CompiledExpressions}.
+   *
+   * @throws IllegalArgumentException If a Plan or Modifier cannot be serialized.
+   */
+  public static void write(Map<String, CompiledExpression> expressions, DataOutput out)
+      throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(expressions.size());
+    for (Map.Entry<String, CompiledExpression> entry : expressions.entrySet()) {
+      out.writeUTF(entry.getKey());
+      writeExpression(entry.getValue(), out);
+    }
+  }
+
+  /**
+   * Memory-maps the given file and reads the {@link CompiledExpression CompiledExpressions} it
+   * holds.
+   *
+   * @param parameters The Parameters to bind by name. Any other Parameter in the file is created
+   *     anew with its stored name and default value.
+   * @return The CompiledExpressions by name, in the order they were written.
+   */
+  public static Map<String, CompiledExpression> load(File file, Parameter<?>... parameters)
+      throws IOException {
+    FileInputStream stream = new FileInputStream(file);
+    try {
+      FileChannel channel = stream.getChannel();
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(buffer, parameters);
+    } finally {
+      stream.close();
+    }
+  }
+
+  /**
+   * Reads the {@link CompiledExpression CompiledExpressions} held by the given buffer.
+   *
+   * @param parameters The Parameters to bind by name. Any other Parameter in the buffer is created
+   *     anew with its stored name and default value.
+   * @return The CompiledExpressions by name, in the order they were written.
+   */
+  public static Map<String, CompiledExpression> read(ByteBuffer buffer, Parameter<?>... parameters)
+      throws IOException {
+    ByteBufferInput in = new ByteBufferInput(buffer);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a serialized expression file");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported serialized expression version: " + version);
+    }
+
+    Map<String, Parameter<?>> parametersByName = new HashMap<>();
+    for (Parameter<?> parameter : parameters) {
+      parametersByName.put(parameter.getName(), parameter);
+    }
+
+    int count = in.readCount("expression", MIN_EXPRESSION_SIZE);
+    Map<String, CompiledExpression> expressions = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      String name = in.readUTF();
+      expressions.put(name, readExpression(in, parametersByName));
+    }
+    return expressions;
+  }
+
+  private static void writeExpression(CompiledExpression expression, DataOutput out)
+      throws IOException {
+    Plan[] templates = expression.templates();
+    out.writeInt(templates.length);
+    for (Plan template : templates) {
+      writePlan(template, out);
+    }
+
+    CompiledExpression.Stage[] stages = expression.stages();
+    out.writeInt(stages.length);
+    for (CompiledExpression.Stage stage : stages) {
+      out.writeInt(stage.from);
+      out.writeInt(stage.to);
+      if (stage.fusedModifiers != null) {
+        out.writeBoolean(true);
+        out.writeInt(stage.fusedModifiers.length);
+        for (Modifier modifier : stage.fusedModifiers) {
+          writeModifier(modifier, out);
+        }
+      } else if (stage.modifier instanceof Modifier.PropertyModifierRun) {
+        Modifier.PropertyModifier[] run =
+            ((Modifier.PropertyModifierRun) stage.modifier).modifiers();
+        out.writeBoolean(false);
+        out.writeInt(run.length);
+        for (Modifier modifier : run) {
+          writeModifier(modifier, out);
+        }
+      } else {
+        out.writeBoolean(false);
+        out.writeInt(1);
+        writeModifier(stage.modifier, out);
+      }
+    }
+  }
+
+  private static CompiledExpression readExpression(
+      ByteBufferInput in, Map<String, Parameter<?>> parameters) throws IOException {
+    Plan[] templates = new Plan[in.readCount("template", MIN_PLAN_SIZE)];
+    for (int i = 0; i < templates.length; i++) {
+      templates[i] = readPlan(in);
+    }
+
+    CompiledExpression.Stage[] stages =
+        new CompiledExpression.Stage[in.readCount("stage", MIN_STAGE_SIZE)];
+    for (int i = 0; i < stages.length; i++) {
+      int from = in.readInt();
+      int to = in.readInt();
+      if (from < 0 || from > to || to > templates.length) {
+        throw new IOException(
+            "Invalid stage range " + from + ".." + to + " of " + templates.length + " templates");
+      }
+
+      boolean fused = in.readBoolean();
+      int count = in.readCount("modifier", MIN_MODIFIER_SIZE);
+      if (count == 0) {
+        throw new IOException("Stage without modifiers");
+      }
+      if (fused) {
+        Modifier.PlanModifier[] modifiers = new Modifier.PlanModifier[count];
+        for (int j = 0; j < modifiers.length; j++) {
+          Modifier modifier = readModifier(in, parameters);
+          if (!(modifier instanceof Modifier.PlanModifier)) {
+            throw new IOException("Cannot fuse Modifier: " + modifier.getClass());
+          }
+          modifiers[j] = (Modifier.PlanModifier) modifier;
+        }
+        stages[i] = new CompiledExpression.Stage(from, to, modifiers, null);
+      } else {
+        Modifier modifier = readModifier(in, parameters);
+        for (int j = 1; j < count; j++) {
+          modifier =
+              Modifier.PropertyModifierRun.of(
+                  propertyModifier(modifier), propertyModifier(readModifier(in, parameters)));
+        }
+        stages[i] = new CompiledExpression.Stage(from, to, null, modifier);
+      }
+    }
+    return new CompiledExpression(templates, stages);
+  }
+
+  private static Modifier.PropertyModifier propertyModifier(Modifier modifier) throws IOException {
+    if (!(modifier instanceof Modifier.PropertyModifier)) {
+      throw new IOException("Not a PropertyModifier: " + modifier.getClass());
+    }
+    return (Modifier.PropertyModifier) modifier;
+  }
+
+  @SuppressWarnings("unchecked") // The codec was registered for the Plan's class.
+  private static void writePlan(Plan plan, DataOutput out) throws IOException {
+    String id = planIds.get(plan.getClass());
+    if (id == null) {
+      throw new IllegalArgumentException("No PlanCodec registered for " + plan.getClass());
+    }
+    out.writeUTF(id);
+    ((PlanCodec<Plan>) planCodecs.get(id)).write(plan, out);
+  }
+
+  private static Plan readPlan(DataInput in) throws IOException {
+    String id = in.readUTF();
+    PlanCodec<?> codec = planCodecs.get(id);
+    if (codec == null) {
+      throw new IOException("No PlanCodec registered for id " + id);
+    }
+    return codec.read(in);
+  }
+
+  private static void writeModifier(Modifier modifier, DataOutput out) throws IOException {
+    String id = modifierIds.get(modifier.getClass());
+    Object[] values = modifier.values();
+    if (id == null || values == null) {
+      throw new IllegalArgumentException(
+          "Modifier cannot be serialized without values and a registered ModifierFactory: "
+              + modifier.getClass());
+    }
+    out.writeUTF(id);
+    out.writeInt(values.length);
+    for (Object value : values) {
+      writeValue(value, out);
+    }
+  }
+
+  private static Modifier readModifier(ByteBufferInput in, Map<String, Parameter<?>> parameters)
+      throws IOException {
+    String id = in.readUTF();
+    ModifierFactory factory = modifierFactories.get(id);
+    if (factory == null) {
+      throw new IOException("No ModifierFactory registered for id " + id);
+    }
+    Object[] values = new Object[in.readCount("value", MIN_VALUE_SIZE)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readValue(in, parameters);
+    }
+
+    Modifier modifier;
+    try {
+      modifier = factory.newInstance(values);
+    } catch (RuntimeException e) {
+      throw new IOException("Invalid values for the ModifierFactory with id " + id, e);
+    }
+    if (modifier == null) {
+      throw new IOException("No Modifier created by the ModifierFactory with id " + id);
+    }
+    return modifier;
+  }
+
+  private static void writeValue(@Nullable Object value, DataOutput out) throws IOException {
+    if (value == null) {
+      out.writeByte(VALUE_NULL);
+    } else if (value instanceof Boolean) {
+      out.writeByte(VALUE_BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(VALUE_INT);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(VALUE_LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(VALUE_FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(VALUE_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      out.writeByte(VALUE_STRING);
+      out.writeUTF((String) value);
+    } else if (value instanceof Parameter) {
+      Parameter<?> parameter = (Parameter<?>) value;
+      out.writeByte(VALUE_PARAMETER);
+      out.writeUTF(parameter.getName());
+      writeValue(parameter.getDefaultValue(), out);
+    } else {
+      throw new IllegalArgumentException("Value cannot be serialized: " + value.getClass());
+    }
+  }
+
+  /**
+   * @param parameters The Parameters by name, or null if the value is the default value of a
+   *     Parameter, which cannot be a Parameter itself.
+   */
+  @Nullable
+  private static Object readValue(DataInput in, @Nullable Map<String, Parameter<?>> parameters)
+      throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_BOOLEAN:
+        return in.readBoolean();
+      case VALUE_INT:
+        return in.readInt();
+      case VALUE_LONG:
+        return in.readLong();
+      case VALUE_FLOAT:
+        return in.readFloat();
+      case VALUE_DOUBLE:
+        return in.readDouble();
+      case VALUE_STRING:
+        return in.readUTF();
+      case VALUE_PARAMETER:
+        if (parameters == null) {
+          throw new IOException("Parameter nested in a Parameter");
+        }
+        String name = in.readUTF();
+        Object defaultValue = readValue(in, null);
+        Parameter<?> parameter = parameters.get(name);
+        if (parameter == null) {
+          parameter = new Parameter<>(name, defaultValue);
+          parameters.put(name, parameter);
+        }
+        return parameter;
+      default:
+        throw new IOException("Unknown value type: " + type);
+    }
+  }
+
+  /**
+   * Writes and reads the properties of a {@link Plan} class.
+   *
+   * @param <P> The type of the Plan.
+   */
+  public interface PlanCodec<P extends Plan> {
+
+    /**
+     * Writes every property of the given {@link Plan}.
+     */
+    void write(P plan, DataOutput out) throws IOException;
+
+    /**
+     * Creates a new {@link Plan} with the properties written by {@link #write(Plan, DataOutput)}.
+     */
+    P read(DataInput in) throws IOException;
+  }
+
+  /**
+   * Recreates a {@link Modifier} from the values it was created with.
+   */
+  public interface ModifierFactory {
+
+    /**
+     * Creates a new {@link Modifier} equal to the one that was written with the given values.
+     */
+    Modifier newInstance(Object[] values);
+  }
+
+  /**
+   * A {@link DataInput} that reads a {@link ByteBuffer} in place.
+   */
+  private static final class ByteBufferInput implements DataInput {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    /**
+     * Reads the number of the following elements, each of which takes at least the given number of
+     * bytes.
+     *
+     * @throws IOException If the count is negative or exceeds what the remaining bytes can hold.
+     */
+    int readCount(String element, int minElementSize) throws IOException {
+      int count = readInt();
+      if (count < 0 || (long) count * minElementSize > buffer.remaining()) {
+        throw new IOException(
+            "Invalid " + element + " count " + count + " with " + buffer.remaining()
+                + " bytes remaining");
+      }
+      return count;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+      try {
+        buffer.get(b, off, len);
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public int skipBytes(int n) {
+      int skipped = Math.min(n, buffer.remaining());
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+      return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      try {
+        return buffer.get();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+      return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+      try {
+        return buffer.getShort();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+      return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+      return (char) readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      try {
+        return buffer.getInt();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      try {
+        return buffer.getLong();
+      } catch (BufferUnderflowException e) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() throws IOException {
+      throw new IOException("Lines cannot be read from a serialized expression file");
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+      return DataInputStream.readUTF(this);
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.google.android.material.motion.expression;
 
 import android.support.annotation.Nullable;
 import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
 
 /**
  * A function object that represents an initialization of {@link Plan Plans}.
@@ -28,23 +29,127 @@ import com.google.android.material.motion.runtime.Plan;
  * <p>
  * Your custom Term must pass an instance of this class into
  * {@link Term#Term(Language, Initializer, Plan...)}.
+ *
+ * <p>
+ * An Initializer runs once per Term, on whichever thread first evaluates it. It must not mutate
+ * anything but the Plans passed into it.
  */
 public abstract class Initializer {
   @Nullable private final Initializer subclassInitializer;
+  /**
+   * The values that fully determine what this {@link Initializer} does, or null if it is only equal
+   * to itself.
+   */
+  @Nullable private final Object[] values;
 
   /**
-   * Creates a new {@link Initializer}.
+   * Creates a new {@link Initializer} that is only equal to itself. A stateless Initializer can be
+   * shared between Terms as a constant, which also makes it equal across them.
    *
    * @param subclassInitializer If your subclass provides an Initializer, pass it in here.
    */
   public Initializer(@Nullable Initializer subclassInitializer) {
     this.subclassInitializer = subclassInitializer;
+    this.values = null;
+  }
+
+  /**
+   * Creates a new {@link Initializer} that is equal to any other instance of the same class created
+   * with equal values and an equal subclass Initializer.
+   *
+   * @param subclassInitializer If your subclass provides an Initializer, pass it in here.
+   * @param values Every value that this Initializer reads.
+   */
+  public Initializer(@Nullable Initializer subclassInitializer, Object... values) {
+    this.subclassInitializer = subclassInitializer;
+    this.values = values;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (values == null || o == null || o.getClass() != getClass()) {
+      return false;
+    }
+    Initializer other = (Initializer) o;
+    return Arrays.deepEquals(values, other.values)
+        && (subclassInitializer == null
+            ? other.subclassInitializer == null
+            : subclassInitializer.equals(other.subclassInitializer));
+  }
+
+  @Override
+  public int hashCode() {
+    if (values == null) {
+      return System.identityHashCode(this);
+    }
+    int hash = 31 * getClass().hashCode() + Arrays.deepHashCode(values);
+    return 31 * hash + (subclassInitializer != null ? subclassInitializer.hashCode() : 0);
   }
 
-  final void fullInitialize(Plan[] plans) {
-    initialize(plans);
-    if (subclassInitializer != null) {
-      subclassInitializer.fullInitialize(plans);
+  /**
+   * Whether this {@link Initializer} fully determines the state of the {@link Plan Plans} it
+   * initializes, given new instances of their classes. Only then are two {@link Term Terms} that
+   * run equal Initializers over Plans of the same classes structurally identical, as compared by
+   * {@link InternTable} and {@link PlanCache}.
+   *
+   * <p>
+   * Override this to return true if the Term that passes this Initializer always passes new,
+   * unconfigured Plans along with it. By default, the root of a Term is only structurally
+   * identical to itself, since its Plans may have been configured before they were passed in.
+   */
+  protected boolean determinesPlans() {
+    return false;
+  }
+
+  /**
+   * Returns this {@link Initializer} followed by every subclass Initializer, in the order they
+   * run. The array is computed once for each {@link Term} and passed to
+   * {@link #initializeAll(Initializer[], Plan[])} when its Plans are initialized.
+   */
+  final Initializer[] chain() {
+    int length = 0;
+    for (Initializer i = this; i != null; i = i.subclassInitializer) {
+      length++;
+    }
+    Initializer[] chain = new Initializer[length];
+    int index = 0;
+    for (Initializer i = this; i != null; i = i.subclassInitializer) {
+      chain[index++] = i;
+    }
+    return chain;
+  }
+
+  /**
+   * Runs the given {@link Initializer Initializers} in order.
+   *
+   * <p>
+   * Consecutive {@link SimpleInitializer SimpleInitializers} are fused, so all of them initialize
+   * one {@link Plan} before moving on to the next.
+   *
+   * @param chain The Initializers returned by {@link #chain()}.
+   */
+  static void initializeAll(Initializer[] chain, Plan[] plans) {
+    int start = 0;
+    while (start < chain.length) {
+      if (chain[start] instanceof SimpleInitializer) {
+        int end = start + 1;
+        while (end < chain.length && chain[end] instanceof SimpleInitializer) {
+          end++;
+        }
+
+        for (Plan plan : plans) {
+          for (int i = start; i < end; i++) {
+            ((SimpleInitializer) chain[i]).initialize(plan);
+          }
+        }
+        start = end;
+      } else {
+        chain[start].initialize(plans);
+        start++;
+      }
     }
   }
 
@@ -70,6 +175,17 @@ public abstract class Initializer {
       super(subclassInitializer);
     }
 
+    /**
+     * Creates a new {@link SimpleInitializer} that is equal to any other instance of the same class
+     * created with equal values and an equal subclass Initializer.
+     *
+     * @param subclassInitializer If your subclass provides an Initializer, pass it in here.
+     * @param values Every value that this Initializer reads.
+     */
+    public SimpleInitializer(@Nullable Initializer subclassInitializer, Object... values) {
+      super(subclassInitializer, values);
+    }
+
     @Override
     protected final void initialize(Plan[] plans) {
       for (Plan plan : plans) {
@@ -78,10 +194,55 @@ public abstract class Initializer {
     }
 
     /**
-     * Initializes the properties on the given {@link Plan}.
+     * Initializes the properties on the given {@link Plan}. Must not access any other Plan, since
+     * consecutive SimpleInitializers may be applied to each Plan in a single pass.
      *
      * @param plan The Plan to initialize.
      */
     protected abstract void initialize(Plan plan);
   }
+
+  /**
+   * A helper class that makes it easy to implement an {@link Initializer} of numeric Plan
+   * properties, which writes a {@link PropertyStore} instead of the Plans themselves.
+   *
+   * <p>
+   * Every Plan in the working set must implement {@link PropertyStore.Storable}.
+   */
+  public static abstract class PropertyInitializer extends Initializer {
+
+    /**
+     * Creates a new {@link PropertyInitializer}.
+     *
+     * @param subclassInitializer If your subclass provides an Initializer, pass it in here.
+     */
+    public PropertyInitializer(@Nullable Initializer subclassInitializer) {
+      super(subclassInitializer);
+    }
+
+    /**
+     * Creates a new {@link PropertyInitializer} that is equal to any other instance of the same
+     * class created with equal values and an equal subclass Initializer.
+     *
+     * @param subclassInitializer If your subclass provides an Initializer, pass it in here.
+     * @param values Every value that this Initializer reads.
+     */
+    public PropertyInitializer(@Nullable Initializer subclassInitializer, Object... values) {
+      super(subclassInitializer, values);
+    }
+
+    @Override
+    protected final void initialize(Plan[] plans) {
+      PropertyStore store = PropertyStore.gather(plans);
+      initialize(store);
+      store.scatter(plans);
+    }
+
+    /**
+     * Initializes the numeric properties of every {@link Plan} in the working set.
+     *
+     * @param store The properties of the Plans, valid only during this call.
+     */
+    protected abstract void initialize(PropertyStore store);
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An optional instrumentation surface that reports how much time is spent building and
+ * evaluating {@link Expression} chains.
+ *
+ * <p>
+ * Instrumentation is disabled by default. While no {@link Listener} is set, every instrumentation
+ * point costs a single branch and does not allocate.
+ */
+public final class Instrumentation {
+
+  @Nullable private static volatile Listener listener;
+
+  private Instrumentation() {}
+
+  /**
+   * Sets the {@link Listener} notified of all subsequent Expression events.
+   *
+   * @param listener The Listener, or null to disable instrumentation.
+   */
+  public static void setListener(@Nullable Listener listener) {
+    Instrumentation.listener = listener;
+  }
+
+  /**
+   * @return The current {@link Listener}, or null if instrumentation is disabled.
+   */
+  @Nullable
+  static Listener listener() {
+    return listener;
+  }
+
+  /**
+   * A listener notified of Expression events. Callbacks may be invoked from any thread that builds
+   * or evaluates an Expression, and must be cheap.
+   */
+  public interface Listener {
+
+    /**
+     * Called when a {@link Term} is created, either by a {@link Language} or by a modifier.
+     *
+     * @param termClass The class of the new Term.
+     */
+    void onTermCreated(Class<?> termClass);
+
+    /**
+     * Called when an {@link Expression} is instantiated through its reflective chaining
+     * constructor, because no factory is available for its class.
+     *
+     * @param expressionClass The class of the new Expression.
+     * @param nanos The time spent looking up and invoking the constructor.
+     */
+    void onReflectiveInstantiation(Class<?> expressionClass, long nanos);
+
+    /**
+     * Called when the working set of a {@link Term} is evaluated.
+     *
+     * @param termClass The class of the Term.
+     * @param planCount The number of {@link Plan Plans} in the working set.
+     * @param nanos The time spent evaluating, including Initializers and Modifiers.
+     */
+    void onWork(Class<?> termClass, int planCount, long nanos);
+
+    /**
+     * Called when an {@link Initializer} chain initializes the working set of a {@link Term}.
+     *
+     * @param initializer The outermost Initializer of the chain.
+     * @param planCount The number of {@link Plan Plans} initialized.
+     * @param nanos The time spent in the whole Initializer chain.
+     */
+    void onInitialize(Initializer initializer, int planCount, long nanos);
+
+    /**
+     * Called when a {@link Modifier} modifies the working set of a {@link Term}.
+     *
+     * @param modifier The Modifier.
+     * @param planCount The number of {@link Plan Plans} modified.
+     * @param nanos The time spent in the Modifier.
+     */
+    void onModify(Modifier modifier, int planCount, long nanos);
+  }
+
+  /**
+   * A thread-safe {@link Listener} that counts Expression events and accumulates their timings.
+   */
+  public static class Counters implements Listener {
+
+    private final AtomicLong termsCreated = new AtomicLong();
+    private final AtomicLong reflectiveInstantiations = new AtomicLong();
+    private final AtomicLong reflectiveInstantiationNanos = new AtomicLong();
+    private final AtomicLong works = new AtomicLong();
+    private final AtomicLong workNanos = new AtomicLong();
+    private final AtomicLong initializations = new AtomicLong();
+    private final AtomicLong initializeNanos = new AtomicLong();
+    private final AtomicLong modifications = new AtomicLong();
+    private final AtomicLong modifyNanos = new AtomicLong();
+
+    @Override
+    public void onTermCreated(Class<?> termClass) {
+      termsCreated.incrementAndGet();
+    }
+
+    @Override
+    public void onReflectiveInstantiation(Class<?> expressionClass, long nanos) {
+      reflectiveInstantiations.incrementAndGet();
+      reflectiveInstantiationNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void onWork(Class<?> termClass, int planCount, long nanos) {
+      works.incrementAndGet();
+      workNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void onInitialize(Initializer initializer, int planCount, long nanos) {
+      initializations.incrementAndGet();
+      initializeNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void onModify(Modifier modifier, int planCount, long nanos) {
+      modifications.incrementAndGet();
+      modifyNanos.addAndGet(nanos);
+    }
+
+    public long getTermsCreated() {
+      return termsCreated.get();
+    }
+
+    public long getReflectiveInstantiations() {
+      return reflectiveInstantiations.get();
+    }
+
+    public long getReflectiveInstantiationNanos() {
+      return reflectiveInstantiationNanos.get();
+    }
+
+    public long getWorks() {
+      return works.get();
+    }
+
+    public long getWorkNanos() {
+      return workNanos.get();
+    }
+
+    public long getInitializations() {
+      return initializations.get();
+    }
+
+    public long getInitializeNanos() {
+      return initializeNanos.get();
+    }
+
+    public long getModifications() {
+      return modifications.get();
+    }
+
+    public long getModifyNanos() {
+      return modifyNanos.get();
+    }
+
+    /**
+     * Resets all counters and timings to zero.
+     */
+    public void reset() {
+      termsCreated.set(0);
+      reflectiveInstantiations.set(0);
+      reflectiveInstantiationNanos.set(0);
+      works.set(0);
+      workNanos.set(0);
+      initializations.set(0);
+      initializeNanos.set(0);
+      modifications.set(0);
+      modifyNanos.set(0);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded table of canonical {@link Term Terms}, which lets structurally identical
+ * {@link Expression} chains share a single instance.
+ *
+ * <p>
+ * Two Terms are structurally identical if every link of their chains has the same class and equal
+ * {@link Initializer Initializers} and {@link Modifier Modifiers}. By default a Modifier or
+ * Initializer is only equal to itself. Create them with values, as in
+ * {@link Modifier.SimpleModifier#SimpleModifier(Object...)}, or share stateless instances as
+ * constants, to make equal chains built on different screens share a Term. The root of a chain
+ * also requires an Initializer that {@link Initializer#determinesPlans() determines its Plans},
+ * since the Plans passed into a Term constructor may already be configured.
+ *
+ * <p>
+ * Since the canonical Term is shared, its Plan templates are initialized once, and its
+ * {@link Term#memoizedPlans()} are computed once for every chain interned to it. The least
+ * recently used Terms are evicted once the table is full. An InternTable is thread-safe.
+ */
+public final class InternTable {
+
+  private final Map<Key, Term<?, ?>> terms;
+
+  /**
+   * Creates a new {@link InternTable}.
+   *
+   * @param maxSize The maximum number of canonical {@link Term Terms} held by the table.
+   */
+  public InternTable(final int maxSize) {
+    terms =
+        new LinkedHashMap<Key, Term<?, ?>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, Term<?, ?>> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Returns the canonical {@link Term} that is structurally identical to the given Term. If there
+   * is none, the given Term becomes canonical.
+   *
+   * @return The canonical Term, which has the same class as the given Term and generates the same
+   *     {@link Plan Plans}.
+   */
+  @SuppressWarnings("unchecked") // Structurally identical Terms have the same class.
+  public synchronized <T extends Term<?, ?>> T intern(T term) {
+    Key key = new Key(term);
+    Term<?, ?> canonical = terms.get(key);
+    if (canonical == null) {
+      terms.put(key, term);
+      return term;
+    }
+    return (T) canonical;
+  }
+
+  /**
+   * @return The number of canonical {@link Term Terms} in this table.
+   */
+  public synchronized int size() {
+    return terms.size();
+  }
+
+  /**
+   * Removes every canonical {@link Term} from this table.
+   */
+  public synchronized void clear() {
+    terms.clear();
+  }
+
+  /**
+   * Compares Terms by structure rather than by identity.
+   */
+  static final class Key {
+
+    private final Term<?, ?> term;
+
+    Key(Term<?, ?> term) {
+      this.term = term;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && term.sameStructure(((Key) o).term);
+    }
+
+    @Override
+    public int hashCode() {
+      return term.structureHash();
+    }
+  }
+}
@@ -43,7 +43,7 @@ import java.lang.reflect.InvocationTargetException;
  *
  * <p>
  * A Language does not intrinsically define any {@link Plan Plans}.
- * Its {@link #plans()} are the previous chained Term's full set of {@link Term#plans()}.
+ * The Plans of an Expression chain are the {@link Term#plans()} of its last Term.
  *
  * @param <L> Class type of your Language subclass. This is used for type inference when building
  *     the Expression chain.
@@ -69,8 +69,10 @@ public abstract class Language<L extends Language<L>> extends Expression {
    * The chaining constructor.
    *
    * <p>
-   * Subclasses should call this from their own chaining constructor, which must be annotated with
-   * {@link Keep} and have the same parameter types.
+   * Subclasses should call this from their own chaining constructor, which must have the same
+   * parameter types. Unless the expression annotation processor generates a factory for the
+   * subclass, the chaining constructor must also be annotated with {@link Keep}. No factory is
+   * generated for a private chaining constructor, which is invoked through reflection instead.
    *
    * @param previousTerm You must directly pass in the {@link Term} instance that was passed into
    *     the subclass's constructor.
@@ -80,19 +82,45 @@ public abstract class Language<L extends Language<L>> extends Expression {
     this.previousTerm = previousTerm;
   }
 
+  /**
+   * Registers a {@link Factory} that creates chained instances of the given {@link Language}
+   * subclass without reflection. A registered Factory is always preferred over the chaining
+   * constructor.
+   *
+   * <p>
+   * Subclasses may call this from a static initializer.
+   *
+   * @param languageClass The Language subclass. Must be the exact runtime class of its instances.
+   * @param factory The Factory that invokes the subclass's chaining constructor.
+   */
+  public static <L extends Language<L>> void registerFactory(
+      Class<L> languageClass, Factory<L> factory) {
+    ChainingFactories.registerLanguageFactory(languageClass, factory);
+  }
+
   final L chain(Term<?, L> previousTerm) {
     return newInstance(previousTerm);
   }
 
-  @SuppressWarnings({"TryWithIdenticalCatches", "unchecked"}) // Cast to Class<L> and Class<Term>
+  @SuppressWarnings({"TryWithIdenticalCatches", "unchecked"}) // Cast to Class<L> and Factory<L>
   private L newInstance(Term<?, L> previousTerm) {
+    Factory<L> factory = (Factory<L>) ChainingFactories.languageFactory(getClass());
+    if (factory != null) {
+      return factory.newInstance(previousTerm);
+    }
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    long start = listener != null ? System.nanoTime() : 0L;
     try {
       Class<L> klass = (Class<L>) getClass();
 
-      Constructor<L> constructor = klass.getDeclaredConstructor(Term.class);
-      constructor.setAccessible(true);
+      Constructor<L> constructor = ChainingFactories.languageConstructor(klass);
 
-      return constructor.newInstance(previousTerm);
+      L instance = constructor.newInstance(previousTerm);
+      if (listener != null) {
+        listener.onReflectiveInstantiation(klass, System.nanoTime() - start);
+      }
+      return instance;
     } catch (NoSuchMethodException e) {
       throw new BadImplementationException(this, BadImplementationException.MISSING_CONSTRUCTOR, e);
     } catch (IllegalAccessException e) {
@@ -104,11 +132,27 @@ public abstract class Language<L extends Language<L>> extends Expression {
     }
   }
 
-  final Plan[] plans() {
-    if (previousTerm != null) {
-      return previousTerm.plans();
-    } else {
-      return new Plan[0];
-    }
+  /**
+   * A factory that creates chained instances of a {@link Language} subclass without reflection.
+   *
+   * <p>
+   * Register an instance with {@link #registerFactory(Class, Factory)} to opt out of the reflective
+   * lookup of the chaining constructor.
+   *
+   * @param <L> Class type of your Language subclass.
+   */
+  public interface Factory<L extends Language<L>> {
+
+    /**
+     * Creates a new instance of the Language subclass by invoking its chaining constructor.
+     *
+     * @param previousTerm The {@link Term} instance to pass into the chaining constructor.
+     */
+    L newInstance(Term<?, L> previousTerm);
+  }
+
+  @Nullable
+  final Term<?, L> previousTerm() {
+    return previousTerm;
   }
 }
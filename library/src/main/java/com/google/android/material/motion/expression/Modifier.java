@@ -15,16 +15,73 @@
  */
 package com.google.android.material.motion.expression;
 
+import android.support.annotation.Nullable;
 import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
 
 /**
  * A function object that represents a modification of {@link Plan Plans}.
  *
  * <p>
  * Your custom Term must pass an instance of this class into {@link Term#modify(Modifier)}.
+ *
+ * <p>
+ * A Modifier may be invoked concurrently from multiple threads, each time with different Plans.
+ * It must not mutate anything but the Plans passed into it.
  */
 public abstract class Modifier {
 
+  /**
+   * Returned by {@link #overwrittenProperties()} when a {@link Modifier} does not declare which
+   * properties it overwrites.
+   */
+  public static final long UNKNOWN_PROPERTIES = 0L;
+
+  /**
+   * The values that fully determine what this {@link Modifier} does, or null if it is only equal to
+   * itself.
+   */
+  @Nullable private final Object[] values;
+
+  Modifier() {
+    this.values = null;
+  }
+
+  Modifier(Object[] values) {
+    this.values = values;
+  }
+
+  /**
+   * @return The values this {@link Modifier} was created with, or null if it was created without.
+   */
+  @Nullable
+  final Object[] values() {
+    return values;
+  }
+
+  /**
+   * A Modifier is equal to another Modifier of the same class that was created with equal values.
+   * A Modifier created without values is only equal to itself.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (values == null || o == null || o.getClass() != getClass()) {
+      return false;
+    }
+    return Arrays.deepEquals(values, ((Modifier) o).values);
+  }
+
+  @Override
+  public int hashCode() {
+    if (values == null) {
+      return System.identityHashCode(this);
+    }
+    return 31 * getClass().hashCode() + Arrays.deepHashCode(values);
+  }
+
   /**
    * Modifies the properties on the given {@link Plan Plans}.
    *
@@ -32,11 +89,73 @@ public abstract class Modifier {
    */
   abstract void modify(Plan[] plans);
 
+  /**
+   * Modifies the properties on the given {@link Plan Plans}, reading the value of any
+   * {@link Parameter} from the given {@link Arguments}.
+   */
+  void modify(Plan[] plans, @Nullable Arguments arguments) {
+    modify(plans);
+  }
+
+  /**
+   * Declares the properties that this {@link Modifier} overwrites, as a bitmask whose low 32 bits
+   * are defined by your {@link Term} subclass. The high 32 bits are reserved for the properties
+   * declared by the built-in {@link PropertyModifier PropertyModifiers}. Override this only if this
+   * Modifier unconditionally overwrites these properties on every Plan, writes nothing else, and
+   * reads no property of any Plan.
+   *
+   * <p>
+   * A Modifier whose properties are all overwritten by later Modifiers on the same Term, before any
+   * Modifier that does not declare its properties, is never run.
+   *
+   * @return The overwritten properties, or {@link #UNKNOWN_PROPERTIES} if this Modifier may read or
+   *     write any property.
+   */
+  protected long overwrittenProperties() {
+    return UNKNOWN_PROPERTIES;
+  }
+
+  /**
+   * A {@link Modifier} that modifies each {@link Plan} independently of the others. Consecutive
+   * such Modifiers may be fused into a single pass over the Plans.
+   */
+  static abstract class PlanModifier extends Modifier {
+
+    PlanModifier() {}
+
+    PlanModifier(Object[] values) {
+      super(values);
+    }
+
+    /**
+     * Modifies the properties on the given {@link Plan}, reading the value of any
+     * {@link Parameter} from the given {@link Arguments}.
+     */
+    abstract void modifyPlan(Plan plan, @Nullable Arguments arguments);
+  }
+
   /**
    * A helper class that makes it easy to implement a simple {@link Modifier} that does the
    * same operation for every {@link Plan}.
    */
-  public static abstract class SimpleModifier extends Modifier {
+  public static abstract class SimpleModifier extends PlanModifier {
+
+    /**
+     * Creates a new {@link SimpleModifier} that is only equal to itself.
+     */
+    public SimpleModifier() {}
+
+    /**
+     * Creates a new {@link SimpleModifier} that is equal to any other instance of the same class
+     * created with equal values. This lets structurally identical {@link Expression} chains be
+     * shared through an {@link InternTable}.
+     *
+     * @param values Every value that this Modifier reads, such as the arguments of its modifier
+     *     function.
+     */
+    public SimpleModifier(Object... values) {
+      super(values);
+    }
 
     @Override
     public final void modify(Plan[] plans) {
@@ -45,11 +164,371 @@ public abstract class Modifier {
       }
     }
 
+    @Override
+    final void modifyPlan(Plan plan, @Nullable Arguments arguments) {
+      modify(plan);
+    }
+
     /**
-     * Modifies the properties on the given {@link Plan}.
+     * Modifies the properties on the given {@link Plan}. Must not access any other Plan, since
+     * consecutive SimpleModifiers may be applied to each Plan in a single pass.
      *
      * @param plan The Plan to modify.
      */
     public abstract void modify(Plan plan);
   }
+
+  /**
+   * A helper class that makes it easy to implement a {@link Modifier} that does the same operation
+   * for every {@link Plan}, using a value that is bound late through a {@link Parameter}.
+   *
+   * <p>
+   * An {@link Expression} chain built with ParameterizedModifiers can generate its Plans repeatedly
+   * with different {@link Arguments} through {@link Term#plans(Arguments)}, without building a new
+   * chain.
+   *
+   * @param <V> The type of the Parameter's value.
+   */
+  public static abstract class ParameterizedModifier<V> extends PlanModifier {
+
+    private final Parameter<V> parameter;
+
+    /**
+     * Creates a new {@link ParameterizedModifier}.
+     *
+     * @param parameter The Parameter whose value is passed into {@link #modify(Plan, Object)}.
+     */
+    public ParameterizedModifier(Parameter<V> parameter) {
+      this.parameter = parameter;
+    }
+
+    /**
+     * Creates a new {@link ParameterizedModifier} that is equal to any other instance of the same
+     * class created with the same Parameter and equal values.
+     *
+     * @param parameter The Parameter whose value is passed into {@link #modify(Plan, Object)}.
+     * @param values Every other value that this Modifier reads.
+     */
+    public ParameterizedModifier(Parameter<V> parameter, Object... values) {
+      super(prepend(parameter, values));
+      this.parameter = parameter;
+    }
+
+    private static Object[] prepend(Object first, Object[] rest) {
+      Object[] values = new Object[rest.length + 1];
+      values[0] = first;
+      System.arraycopy(rest, 0, values, 1, rest.length);
+      return values;
+    }
+
+    @Override
+    final void modify(Plan[] plans) {
+      modify(plans, null);
+    }
+
+    @Override
+    final void modify(Plan[] plans, @Nullable Arguments arguments) {
+      V value = parameter.valueIn(arguments);
+      for (Plan plan : plans) {
+        modify(plan, value);
+      }
+    }
+
+    @Override
+    final void modifyPlan(Plan plan, @Nullable Arguments arguments) {
+      modify(plan, parameter.valueIn(arguments));
+    }
+
+    /**
+     * Modifies the properties on the given {@link Plan}. Must not access any other Plan, since
+     * consecutive ParameterizedModifiers may be applied to each Plan in a single pass.
+     *
+     * @param plan The Plan to modify.
+     * @param value The value bound to the Parameter, or its default value if it is not bound.
+     */
+    public abstract void modify(Plan plan, @Nullable V value);
+  }
+
+  /**
+   * A helper class that makes it easy to implement a {@link Modifier} of numeric Plan properties,
+   * which reads and writes a {@link PropertyStore} instead of the Plans themselves.
+   *
+   * <p>
+   * Every Plan in the working set must implement {@link PropertyStore.Storable}. Consecutive
+   * PropertyModifiers on a Term share a single PropertyStore, so the Plans are only written into
+   * the store and read back once for the whole run.
+   */
+  public static abstract class PropertyModifier extends Modifier {
+
+    /**
+     * The number of float properties, and of long properties, that the built-in
+     * PropertyModifiers declare a bit of {@link #overwrittenProperties()} for.
+     */
+    private static final int DECLARED_PROPERTIES = 16;
+
+    /**
+     * Creates a new {@link PropertyModifier} that is only equal to itself.
+     */
+    public PropertyModifier() {}
+
+    /**
+     * Creates a new {@link PropertyModifier} that is equal to any other instance of the same class
+     * created with equal values.
+     *
+     * @param values Every value that this Modifier reads.
+     */
+    public PropertyModifier(Object... values) {
+      super(values);
+    }
+
+    @Override
+    final void modify(Plan[] plans) {
+      PropertyStore store = PropertyStore.gather(plans);
+      modify(store);
+      store.scatter(plans);
+    }
+
+    /**
+     * Modifies the numeric properties of every {@link Plan} in the working set.
+     *
+     * @param store The properties of the Plans, valid only during this call.
+     */
+    protected abstract void modify(PropertyStore store);
+
+    /**
+     * Returns the bit that the built-in PropertyModifiers declare in
+     * {@link #overwrittenProperties()} for the given float property, or
+     * {@link #UNKNOWN_PROPERTIES} if the property has no bit.
+     */
+    static long floatProperty(int property) {
+      return property >= 0 && property < DECLARED_PROPERTIES
+          ? 1L << (32 + property)
+          : UNKNOWN_PROPERTIES;
+    }
+
+    /**
+     * Returns the bit that the built-in PropertyModifiers declare in
+     * {@link #overwrittenProperties()} for the given long property, or
+     * {@link #UNKNOWN_PROPERTIES} if the property has no bit.
+     */
+    static long longProperty(int property) {
+      return property >= 0 && property < DECLARED_PROPERTIES
+          ? 1L << (32 + DECLARED_PROPERTIES + property)
+          : UNKNOWN_PROPERTIES;
+    }
+
+    /**
+     * @return A {@link PropertyModifier} that sets the given float property of every
+     *     {@link Plan}. It is dropped if a later Modifier sets the same property, as long as it
+     *     is one of the first 16 float properties.
+     */
+    public static PropertyModifier setFloat(final int property, final float value) {
+      return new PropertyModifier(property, value) {
+        @Override
+        protected void modify(PropertyStore store) {
+          Arrays.fill(store.floats(property), 0, store.size(), value);
+        }
+
+        @Override
+        protected long overwrittenProperties() {
+          return floatProperty(property);
+        }
+      };
+    }
+
+    /**
+     * @return A {@link PropertyModifier} that adds the given value to the given float property of
+     *     every {@link Plan}.
+     */
+    public static PropertyModifier addFloat(final int property, final float value) {
+      return new PropertyModifier(property, value) {
+        @Override
+        protected void modify(PropertyStore store) {
+          float[] values = store.floats(property);
+          for (int i = 0, size = store.size(); i < size; i++) {
+            values[i] += value;
+          }
+        }
+      };
+    }
+
+    /**
+     * @return A {@link PropertyModifier} that multiplies the given float property of every
+     *     {@link Plan} by the given factor.
+     */
+    public static PropertyModifier scaleFloat(final int property, final float factor) {
+      return new PropertyModifier(property, factor) {
+        @Override
+        protected void modify(PropertyStore store) {
+          float[] values = store.floats(property);
+          for (int i = 0, size = store.size(); i < size; i++) {
+            values[i] *= factor;
+          }
+        }
+      };
+    }
+
+    /**
+     * @return A {@link PropertyModifier} that sets the given long property of every {@link Plan}.
+     *     It is dropped if a later Modifier sets the same property, as long as it is one of the
+     *     first 16 long properties.
+     */
+    public static PropertyModifier setLong(final int property, final long value) {
+      return new PropertyModifier(property, value) {
+        @Override
+        protected void modify(PropertyStore store) {
+          Arrays.fill(store.longs(property), 0, store.size(), value);
+        }
+
+        @Override
+        protected long overwrittenProperties() {
+          return longProperty(property);
+        }
+      };
+    }
+
+    /**
+     * @return A {@link PropertyModifier} that adds the given value to the given long property of
+     *     every {@link Plan}.
+     */
+    public static PropertyModifier addLong(final int property, final long value) {
+      return new PropertyModifier(property, value) {
+        @Override
+        protected void modify(PropertyStore store) {
+          long[] values = store.longs(property);
+          for (int i = 0, size = store.size(); i < size; i++) {
+            values[i] += value;
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * A run of consecutive {@link PropertyModifier PropertyModifiers}, which share a single
+   * {@link PropertyStore}.
+   */
+  static final class PropertyModifierRun extends PropertyModifier {
+
+    private final PropertyModifier[] modifiers;
+    private final long overwrittenProperties;
+
+    private PropertyModifierRun(PropertyModifier[] modifiers) {
+      super((Object[]) modifiers);
+      this.modifiers = modifiers;
+
+      long overwritten = UNKNOWN_PROPERTIES;
+      for (PropertyModifier modifier : modifiers) {
+        long properties = modifier.overwrittenProperties();
+        if (properties == UNKNOWN_PROPERTIES) {
+          overwritten = UNKNOWN_PROPERTIES;
+          break;
+        }
+        overwritten |= properties;
+      }
+      this.overwrittenProperties = overwritten;
+    }
+
+    /**
+     * Returns a run that applies the given {@link PropertyModifier PropertyModifiers} in order.
+     * Either of them may be a run itself.
+     *
+     * <p>
+     * Like the Modifiers of a {@link Work} chain, a member of the run whose
+     * {@link #overwrittenProperties() properties} are all overwritten by the members after it,
+     * before any member that does not declare its properties, is dropped.
+     */
+    static PropertyModifierRun of(PropertyModifier first, PropertyModifier next) {
+      PropertyModifier[] modifiers =
+          first instanceof PropertyModifierRun
+              ? ((PropertyModifierRun) first).modifiers
+              : new PropertyModifier[] {first};
+      if (next instanceof PropertyModifierRun) {
+        for (PropertyModifier modifier : ((PropertyModifierRun) next).modifiers) {
+          modifiers = append(modifiers, modifier);
+        }
+      } else {
+        modifiers = append(modifiers, next);
+      }
+      return new PropertyModifierRun(modifiers);
+    }
+
+    /**
+     * Returns a new array with the given members followed by the given {@link PropertyModifier},
+     * without the members it shadows.
+     */
+    private static PropertyModifier[] append(PropertyModifier[] run, PropertyModifier next) {
+      boolean[] shadowed = null;
+      int kept = run.length;
+      long shadow = next.overwrittenProperties();
+      if (shadow != UNKNOWN_PROPERTIES) {
+        for (int i = run.length - 1; i >= 0; i--) {
+          long overwritten = run[i].overwrittenProperties();
+          if (overwritten == UNKNOWN_PROPERTIES) {
+            break;
+          }
+          if ((overwritten & ~shadow) == 0) {
+            if (shadowed == null) {
+              shadowed = new boolean[run.length];
+            }
+            shadowed[i] = true;
+            kept--;
+          }
+          shadow |= overwritten;
+        }
+      }
+
+      PropertyModifier[] modifiers = new PropertyModifier[kept + 1];
+      int index = 0;
+      for (int i = 0; i < run.length; i++) {
+        if (shadowed == null || !shadowed[i]) {
+          modifiers[index++] = run[i];
+        }
+      }
+      modifiers[index] = next;
+      return modifiers;
+    }
+
+    /**
+     * Returns the {@link PropertyModifier PropertyModifiers} of this run, in order. The array must
+     * not be modified.
+     */
+    PropertyModifier[] modifiers() {
+      return modifiers;
+    }
+
+    @Override
+    protected void modify(PropertyStore store) {
+      for (PropertyModifier modifier : modifiers) {
+        modifier.modify(store);
+      }
+    }
+
+    /**
+     * A run declares the union of the properties of its members, only if all of them declare
+     * their properties.
+     */
+    @Override
+    protected long overwrittenProperties() {
+      return overwrittenProperties;
+    }
+  }
+
+  /**
+   * A modification of the {@link Plan Plans} generated for one of many targets by
+   * {@link Term#plans(Arguments, int, IndexedModifier, PlanBuffer)}, such as a stagger that delays
+   * each target by its index.
+   */
+  public interface IndexedModifier {
+
+    /**
+     * Modifies the properties on the given {@link Plan}, which belongs to the target at the given
+     * index. Must not access any other Plan.
+     *
+     * @param plan The Plan to modify.
+     * @param targetIndex The index of the Plan's target.
+     * @param targetCount The total number of targets.
+     */
+    void modify(Plan plan, int targetIndex, int targetCount);
+  }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates many {@link Term Terms} concurrently on an {@link Executor}, and delivers their
+ * {@link Plan Plans} back to the main thread.
+ *
+ * <p>
+ * Every Term is evaluated as a separate task into new Plan instances, which share no mutable state
+ * with any other evaluation. This leaves only
+ * {@link com.google.android.material.motion.runtime.MotionRuntime#addPlan(Plan, Object)} to the
+ * main thread. The given {@link Arguments} are read concurrently by every task, so they must not
+ * be modified until the {@link Callback} is invoked.
+ */
+public final class ParallelEvaluator {
+
+  private final Executor executor;
+  private final Handler handler;
+
+  /**
+   * Creates a new {@link ParallelEvaluator} that delivers its results to the main thread.
+   *
+   * @param executor The Executor that evaluates the Terms, such as a thread pool.
+   */
+  public ParallelEvaluator(Executor executor) {
+    this(executor, new Handler(Looper.getMainLooper()));
+  }
+
+  /**
+   * Creates a new {@link ParallelEvaluator} that delivers its results to the given
+   * {@link Handler}.
+   *
+   * @param executor The Executor that evaluates the Terms, such as a thread pool.
+   * @param handler The Handler whose thread receives the results.
+   */
+  public ParallelEvaluator(Executor executor, Handler handler) {
+    this.executor = executor;
+    this.handler = handler;
+  }
+
+  /**
+   * Evaluates the given {@link Term Terms} concurrently, then invokes the given {@link Callback} on
+   * the result thread once all of them are evaluated.
+   *
+   * <p>
+   * If the evaluation of any Term throws, the first exception is passed to
+   * {@link Callback#onEvaluationFailed(RuntimeException)} on the result thread instead. A Term
+   * whose task is rejected by the {@link Executor} is evaluated on the calling thread instead.
+   *
+   * @param terms The Terms to evaluate.
+   * @param arguments The values of the Terms' Parameters, or null to use their defaults.
+   * @param callback The Callback that receives the Plans.
+   */
+  public void evaluate(
+      final Term<?, ?>[] terms, @Nullable final Arguments arguments, final Callback callback) {
+    final Plan[][] results = new Plan[terms.length][];
+    final AtomicInteger remaining = new AtomicInteger(terms.length);
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    if (terms.length == 0) {
+      deliver(results, failure, callback);
+      return;
+    }
+
+    for (int i = 0; i < terms.length; i++) {
+      final int index = i;
+      Runnable task =
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                // Writing to a distinct slot, then decrementing, publishes the result to the last
+                // task, which posts them all.
+                results[index] = terms[index].ownedPlans(arguments);
+              } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+              }
+
+              if (remaining.decrementAndGet() == 0) {
+                deliver(results, failure, callback);
+              }
+            }
+          };
+
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        // A saturated or shut down executor must not leave the Callback waiting forever.
+        task.run();
+      }
+    }
+  }
+
+  private void deliver(
+      final Plan[][] results,
+      final AtomicReference<RuntimeException> failure,
+      final Callback callback) {
+    handler.post(
+        new Runnable() {
+          @Override
+          public void run() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+              callback.onEvaluationFailed(e);
+            } else {
+              callback.onPlansEvaluated(results);
+            }
+          }
+        });
+  }
+
+  /**
+   * A callback that receives the {@link Plan Plans} evaluated by a {@link ParallelEvaluator}.
+   */
+  public interface Callback {
+
+    /**
+     * Called on the result thread once every {@link Term} is evaluated.
+     *
+     * @param plans The Plans of each Term, at the same index as the Term. The Plans are owned by
+     *     the caller.
+     */
+    void onPlansEvaluated(Plan[][] plans);
+
+    /**
+     * Called on the result thread instead of {@link #onPlansEvaluated(Plan[][])} once every
+     * {@link Term} is evaluated, if the evaluation of any of them threw.
+     *
+     * @param e The first exception thrown by the evaluation of a Term.
+     */
+    void onEvaluationFailed(RuntimeException e);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * A named slot for a value that is bound late, when the {@link Plan Plans} of an
+ * {@link Expression} chain are generated, rather than when the chain is built.
+ *
+ * <p>
+ * Pass a Parameter into a {@link Modifier.ParameterizedModifier} to build an Expression chain once,
+ * then generate its Plans repeatedly with different {@link Arguments} using
+ * {@link Term#plans(Arguments)}.
+ *
+ * @param <V> The type of the value.
+ */
+public final class Parameter<V> {
+
+  private final String name;
+  @Nullable private final V defaultValue;
+
+  /**
+   * Creates a new {@link Parameter}.
+   *
+   * @param name The name of the Parameter, for debugging.
+   * @param defaultValue The value used when the Parameter is not bound by the {@link Arguments}.
+   */
+  public Parameter(String name, @Nullable V defaultValue) {
+    this.name = name;
+    this.defaultValue = defaultValue;
+  }
+
+  /**
+   * @return The name of this {@link Parameter}.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The value used when this {@link Parameter} is not bound by the {@link Arguments}.
+   */
+  @Nullable
+  public V getDefaultValue() {
+    return defaultValue;
+  }
+
+  /**
+   * Returns the value of this {@link Parameter} in the given {@link Arguments}, or the default
+   * value if it is not bound.
+   */
+  @Nullable
+  V valueIn(@Nullable Arguments arguments) {
+    return arguments != null ? arguments.get(this) : defaultValue;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
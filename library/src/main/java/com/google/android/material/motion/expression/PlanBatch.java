@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.MotionRuntime;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A reusable batch of {@link Plan Plans} bound to their targets, which is submitted to a
+ * {@link MotionRuntime} in one call.
+ *
+ * <p>
+ * Each {@link Term} added to the batch is evaluated once, regardless of the number of targets it
+ * is added for. Every additional target receives its own copy of the Plans, as with
+ * {@link Term#plans(Arguments, int, Modifier.IndexedModifier, PlanBuffer)}. On
+ * {@link #submit(MotionRuntime)}, the Plans are handed to the runtime grouped by performer class,
+ * so that consecutive additions resolve the same kind of
+ * {@link com.google.android.material.motion.runtime.Performer}.
+ *
+ * <p>
+ * Within a performer class, Plans are submitted in the order they were added. A PlanBatch keeps
+ * its capacity across submissions, so that steady-state batching does not allocate. It is not
+ * thread-safe.
+ */
+public final class PlanBatch {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final PlanBuffer plans;
+  private Object[] targets;
+  private final Map<Class<?>, Integer> groupIds = new HashMap<>();
+  private int[] groupRanks = new int[4];
+  private int[] groupOffsets = new int[4];
+  private int[] groupOf;
+  private int[] order;
+
+  /**
+   * Creates a new {@link PlanBatch} with a default initial capacity.
+   */
+  public PlanBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a new {@link PlanBatch}.
+   *
+   * @param capacity The initial number of {@link Plan Plans} the batch can hold without growing.
+   */
+  public PlanBatch(int capacity) {
+    plans = new PlanBuffer(capacity);
+    targets = new Object[capacity];
+    groupOf = new int[capacity];
+    order = new int[capacity];
+  }
+
+  /**
+   * Adds the {@link Plan Plans} of the given {@link Term} for the given target.
+   *
+   * @return This batch.
+   */
+  public PlanBatch add(Term<?, ?> term, Object target) {
+    return add(term, null, target);
+  }
+
+  /**
+   * Adds the {@link Plan Plans} of the given {@link Term} for each of the given targets. The Term
+   * is evaluated once, with the given {@link Arguments}.
+   *
+   * @param arguments The values of the Term's Parameters, or null to use their defaults.
+   * @return This batch.
+   */
+  public PlanBatch add(Term<?, ?> term, @Nullable Arguments arguments, Object... targets) {
+    return add(term, arguments, null, targets);
+  }
+
+  /**
+   * Adds the {@link Plan Plans} of the given {@link Term} for each of the given targets. The Term
+   * is evaluated once, with the given {@link Arguments}, then the given
+   * {@link Modifier.IndexedModifier} is applied to the Plans of each target.
+   *
+   * @param arguments The values of the Term's Parameters, or null to use their defaults.
+   * @param indexedModifier An optional Modifier applied with the index of each target.
+   * @return This batch.
+   * @see Term#plans(Arguments, int, Modifier.IndexedModifier, PlanBuffer)
+   */
+  public PlanBatch add(
+      Term<?, ?> term,
+      @Nullable Arguments arguments,
+      @Nullable Modifier.IndexedModifier indexedModifier,
+      Object... targets) {
+    int offset = plans.size();
+    term.plans(arguments, targets.length, indexedModifier, plans);
+    int count = targets.length > 0 ? (plans.size() - offset) / targets.length : 0;
+
+    for (int t = 0; t < targets.length; t++) {
+      bind(offset + t * count, count, targets[t]);
+    }
+    return this;
+  }
+
+  /**
+   * @return The number of {@link Plan Plans} waiting to be submitted.
+   */
+  public int size() {
+    return plans.size();
+  }
+
+  /**
+   * Adds every {@link Plan} in this batch to the given {@link MotionRuntime}, grouped by performer
+   * class, then clears this batch.
+   */
+  public void submit(MotionRuntime runtime) {
+    Plan[] array = plans.array();
+    int size = plans.size();
+    if (order.length < size) {
+      order = new int[targets.length];
+      groupOf = new int[targets.length];
+    }
+    Arrays.fill(groupRanks, -1);
+
+    // Resolve the group of each Plan once, ranking groups by their first Plan.
+    int groups = 0;
+    for (int i = 0; i < size; i++) {
+      int id = groupId(array[i].getPerformerClass());
+      int rank = groupRanks[id];
+      if (rank < 0) {
+        rank = groupRanks[id] = groups++;
+        groupOffsets[rank] = 0;
+      }
+      groupOf[i] = rank;
+      groupOffsets[rank]++;
+    }
+
+    // Turn the size of each group into its offset, then place each Plan stably within its group.
+    int offset = 0;
+    for (int g = 0; g < groups; g++) {
+      int count = groupOffsets[g];
+      groupOffsets[g] = offset;
+      offset += count;
+    }
+    for (int i = 0; i < size; i++) {
+      order[groupOffsets[groupOf[i]]++] = i;
+    }
+
+    for (int i = 0; i < size; i++) {
+      int index = order[i];
+      runtime.addPlan(array[index], targets[index]);
+    }
+
+    clear();
+  }
+
+  /**
+   * Removes all {@link Plan Plans} from this batch without submitting them, keeping its capacity.
+   */
+  public void clear() {
+    Arrays.fill(targets, 0, plans.size(), null);
+    plans.clear();
+  }
+
+  private void bind(int offset, int count, Object target) {
+    if (offset + count > targets.length) {
+      targets = Arrays.copyOf(targets, Math.max(offset + count, targets.length * 2));
+    }
+    Arrays.fill(targets, offset, offset + count, target);
+  }
+
+  /**
+   * @return The id of the given performer class, which is assigned on first use and kept across
+   *     submissions so that steady-state batching does not allocate.
+   */
+  private int groupId(Class<?> performerClass) {
+    Integer id = groupIds.get(performerClass);
+    if (id == null) {
+      id = groupIds.size();
+      groupIds.put(performerClass, id);
+      if (id == groupRanks.length) {
+        groupRanks = Arrays.copyOf(groupRanks, id * 2);
+        groupOffsets = Arrays.copyOf(groupOffsets, id * 2);
+      }
+      groupRanks[id] = -1;
+    }
+    return id;
+  }
+}
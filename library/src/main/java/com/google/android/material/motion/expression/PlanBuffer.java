@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
+
+/**
+ * A reusable, caller-owned buffer of {@link Plan Plans}.
+ *
+ * <p>
+ * Pass the same instance into {@link Term#plans(Arguments, PlanBuffer)} on every frame, and
+ * {@link #clear()} it once its Plans have been consumed. The buffer only grows, so that
+ * steady-state evaluation does not allocate. A PlanBuffer is not thread-safe.
+ */
+public final class PlanBuffer {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Plan[] plans;
+  private int size;
+
+  /**
+   * Creates a new {@link PlanBuffer} with a default initial capacity.
+   */
+  public PlanBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a new {@link PlanBuffer}.
+   *
+   * @param capacity The initial number of {@link Plan Plans} the buffer can hold without growing.
+   */
+  public PlanBuffer(int capacity) {
+    plans = new Plan[capacity];
+  }
+
+  /**
+   * @return The number of {@link Plan Plans} in this buffer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The {@link Plan} at the given index.
+   * @throws IndexOutOfBoundsException If the index is not less than {@link #size()}.
+   */
+  public Plan get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return plans[index];
+  }
+
+  /**
+   * Removes all {@link Plan Plans} from this buffer, keeping its capacity.
+   */
+  public void clear() {
+    Arrays.fill(plans, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * Reserves room for the given number of {@link Plan Plans} at the end of this buffer.
+   *
+   * @return The index of the first reserved slot in {@link #array()}.
+   */
+  int append(int count) {
+    int offset = size;
+    if (offset + count > plans.length) {
+      plans = Arrays.copyOf(plans, Math.max(offset + count, plans.length * 2));
+    }
+    size += count;
+    return offset;
+  }
+
+  /**
+   * @return The backing array, which is only valid until the next call to {@link #append(int)}.
+   */
+  Plan[] array() {
+    return plans;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of evaluated {@link Plan} templates, keyed by the structure of the
+ * {@link Expression} chain that generated them.
+ *
+ * <p>
+ * A chain built again with the same structure, for example when re-entering a screen, reuses the
+ * previously evaluated templates instead of running its {@link Initializer Initializers} and
+ * {@link Modifier Modifiers} again. Structure is compared as in {@link InternTable}, so only chains
+ * whose Modifiers and Initializers have value equality, and whose Initializers
+ * {@link Initializer#determinesPlans() determine their Plans}, can hit the cache. Cached chains are
+ * always evaluated with the default values of their {@link Parameter Parameters}.
+ *
+ * <p>
+ * The least recently used templates are evicted once the cache is full. Register the cache with
+ * {@link android.content.Context#registerComponentCallbacks(android.content.ComponentCallbacks)} to
+ * have it trimmed on memory pressure. A PlanCache is thread-safe.
+ */
+public final class PlanCache implements ComponentCallbacks2 {
+
+  private final Map<InternTable.Key, Plan[]> templates;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a new {@link PlanCache}.
+   *
+   * @param maxSize The maximum number of Expression chains whose templates are cached.
+   */
+  public PlanCache(final int maxSize) {
+    templates =
+        new LinkedHashMap<InternTable.Key, Plan[]>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<InternTable.Key, Plan[]> eldest) {
+            if (size() > maxSize) {
+              evictionCount++;
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Returns the {@link Plan Plans} of the given {@link Term}, copied from the cached templates of a
+   * structurally identical chain if possible. The Term is evaluated only on a cache miss.
+   *
+   * <p>
+   * A chain with a Term whose Initializer does not {@link Initializer#determinesPlans() determine
+   * its Plans} can never hit the cache from a new build, so it is evaluated without being cached
+   * or counted as a miss.
+   *
+   * @return New Plan instances owned by the caller.
+   */
+  public Plan[] plans(Term<?, ?> term) {
+    if (!term.hasStructuralRoots()) {
+      return term.ownedPlans(null);
+    }
+
+    InternTable.Key key = new InternTable.Key(term);
+
+    Plan[] cached;
+    synchronized (this) {
+      cached = templates.get(key);
+      if (cached != null) {
+        hitCount++;
+      } else {
+        missCount++;
+      }
+    }
+
+    if (cached == null) {
+      // Evaluate outside of the lock. Racing misses compute equal templates.
+      cached = term.ownedPlans(null);
+      synchronized (this) {
+        templates.put(key, cached);
+      }
+    }
+
+    Plan[] plans = new Plan[cached.length];
+    for (int i = 0; i < cached.length; i++) {
+      plans[i] = PlanPool.copy(cached[i]);
+    }
+    return plans;
+  }
+
+  /**
+   * @return The number of Expression chains whose templates are cached.
+   */
+  public synchronized int size() {
+    return templates.size();
+  }
+
+  /**
+   * @return The number of calls to {@link #plans(Term)} that reused cached templates.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of calls to {@link #plans(Term)} that evaluated the Term.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return The number of templates evicted because the cache was full or trimmed.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Evicts the least recently used templates until at most the given number remain.
+   */
+  public synchronized void trimToSize(int size) {
+    Iterator<Plan[]> iterator = templates.values().iterator();
+    while (templates.size() > size && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Evicts all cached templates. Statistics are kept.
+   */
+  public void clear() {
+    trimToSize(0);
+  }
+
+  /**
+   * Trims the cache in response to memory pressure: it is cleared once the app is in the
+   * background or memory is critically low, and halved otherwise.
+   */
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+      clear();
+    } else {
+      trimToSize(size() / 2);
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    clear();
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An optional pool of {@link Plan} instances, keyed by Plan class.
+ *
+ * <p>
+ * Every evaluation of a modified {@link Term} copies the Term's Plan templates. By default each
+ * copy is a new instance created with {@link Plan#clone()}. Once a PlanPool is
+ * {@link #install(PlanPool) installed}, copies of {@link Recyclable} Plans are drawn from the pool
+ * instead, so that steady-state evaluation does not allocate.
+ *
+ * <p>
+ * While a PlanPool is installed, {@link Term#plans()} always returns Plans owned by the caller,
+ * even for a Term without modifiers. They are returned to the pool with {@link #release(Plan...)},
+ * or {@link #release(PlanBuffer)} if they were evaluated into a {@link PlanBuffer}, once the
+ * runtime has consumed them. Only release Plans whose
+ * {@link com.google.android.material.motion.runtime.Performer} does not retain them after they are
+ * added, and never release the shared Plans returned by {@link Term#memoizedPlans()}.
+ */
+public final class PlanPool {
+
+  @Nullable private static volatile PlanPool installed;
+
+  private final int maxPoolSize;
+  private final ConcurrentMap<Class<?>, FreeList> freeLists = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new {@link PlanPool}.
+   *
+   * @param maxPoolSize The maximum number of released Plans held for each Plan class.
+   */
+  public PlanPool(int maxPoolSize) {
+    this.maxPoolSize = maxPoolSize;
+  }
+
+  /**
+   * Installs the given {@link PlanPool}, which will be used by all subsequent evaluations.
+   *
+   * @param pool The PlanPool to install, or null to disable pooling.
+   */
+  public static void install(@Nullable PlanPool pool) {
+    installed = pool;
+  }
+
+  /**
+   * @return Whether a {@link PlanPool} is installed.
+   */
+  static boolean isInstalled() {
+    return installed != null;
+  }
+
+  /**
+   * Returns the given {@link Plan Plans} to the installed {@link PlanPool}, if any. Plans that are
+   * not {@link Recyclable} are ignored.
+   *
+   * <p>
+   * The Plans must not be used after they are released.
+   */
+  public static void release(Plan... plans) {
+    release(plans, plans.length);
+  }
+
+  /**
+   * Returns the {@link Plan Plans} in the given {@link PlanBuffer} to the installed
+   * {@link PlanPool}, if any, then clears the buffer. Unlike {@link #release(Plan...)}, this does
+   * not allocate.
+   *
+   * <p>
+   * The Plans must not be used after they are released.
+   */
+  public static void release(PlanBuffer buffer) {
+    release(buffer.array(), buffer.size());
+    buffer.clear();
+  }
+
+  private static void release(Plan[] plans, int count) {
+    PlanPool pool = installed;
+    if (pool == null) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      Plan plan = plans[i];
+      if (plan instanceof Recyclable) {
+        pool.freeList(plan.getClass()).push(plan);
+      }
+    }
+  }
+
+  /**
+   * Discards all pooled {@link Plan Plans}.
+   */
+  public void clear() {
+    freeLists.clear();
+  }
+
+  /**
+   * Returns a copy of the given template, drawn from the installed {@link PlanPool} if possible.
+   */
+  @SuppressWarnings("unchecked") // The pooled Plan has the same class as the template.
+  static Plan copy(Plan template) {
+    PlanPool pool = installed;
+    if (pool != null && template instanceof Recyclable) {
+      Plan plan = pool.freeList(template.getClass()).pop();
+      if (plan != null) {
+        ((Recyclable<Plan>) plan).copyFrom(template);
+        return plan;
+      }
+    }
+    return template.clone();
+  }
+
+  private FreeList freeList(Class<?> planClass) {
+    FreeList freeList = freeLists.get(planClass);
+    if (freeList == null) {
+      freeList = new FreeList(maxPoolSize);
+      FreeList existing = freeLists.putIfAbsent(planClass, freeList);
+      freeList = existing != null ? existing : freeList;
+    }
+    return freeList;
+  }
+
+  /**
+   * A {@link Plan} that can be reused by a {@link PlanPool}.
+   *
+   * @param <P> The type of the Plan.
+   */
+  public interface Recyclable<P extends Plan> {
+
+    /**
+     * Overwrites every property of this {@link Plan} with the properties of the given template.
+     *
+     * @param template A Plan of the same class.
+     */
+    void copyFrom(P template);
+  }
+
+  /**
+   * A bounded stack of released Plans of a single class.
+   */
+  private static final class FreeList {
+
+    private final Plan[] plans;
+    private int size;
+
+    private FreeList(int capacity) {
+      plans = new Plan[capacity];
+    }
+
+    private synchronized void push(Plan plan) {
+      if (size < plans.length) {
+        plans[size++] = plan;
+      }
+    }
+
+    @Nullable
+    private synchronized Plan pop() {
+      if (size == 0) {
+        return null;
+      }
+      Plan plan = plans[--size];
+      plans[size] = null;
+      return plan;
+    }
+  }
+}
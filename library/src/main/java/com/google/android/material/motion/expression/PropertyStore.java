@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
+
+/**
+ * A struct-of-arrays store of the numeric properties of a working set of {@link Plan Plans}.
+ *
+ * <p>
+ * Each float or long property is identified by an index defined by your {@link Term} subclass, and
+ * is stored as one primitive array holding its value for every Plan in the working set. A
+ * {@link Modifier.PropertyModifier} or {@link Initializer.PropertyInitializer} reads and writes
+ * these arrays directly, so that a numeric modification of many Plans runs as a tight loop without
+ * casts, virtual calls or boxing.
+ *
+ * <p>
+ * Plans take part by implementing {@link Storable}. The Plans are written into the store before
+ * the first PropertyModifier of a run, and read back after the last one. Writing and reading back
+ * still make one {@link Storable} interface call per Plan each, so only the PropertyModifiers in
+ * between run as cast-free loops.
+ *
+ * <p>
+ * Each thread reuses a single PropertyStore, which only grows. A PropertyStore must not be
+ * retained outside of the method it is passed into.
+ */
+public final class PropertyStore {
+
+  private static final float[][] NO_FLOATS = new float[0][];
+  private static final long[][] NO_LONGS = new long[0][];
+
+  private static final ThreadLocal<PropertyStore> scratch =
+      new ThreadLocal<PropertyStore>() {
+        @Override
+        protected PropertyStore initialValue() {
+          return new PropertyStore();
+        }
+      };
+
+  private float[][] floats = NO_FLOATS;
+  private long[][] longs = NO_LONGS;
+  private int size;
+  private int capacity;
+
+  private PropertyStore() {}
+
+  /**
+   * Returns this thread's {@link PropertyStore}, holding the properties of the given Plans.
+   */
+  static PropertyStore gather(Plan[] plans) {
+    PropertyStore store = scratch.get();
+    store.resize(plans.length);
+    for (int i = 0; i < plans.length; i++) {
+      ((Storable) plans[i]).writeTo(store, i);
+    }
+    return store;
+  }
+
+  /**
+   * Writes the properties in this {@link PropertyStore} back into the given Plans.
+   */
+  void scatter(Plan[] plans) {
+    for (int i = 0; i < plans.length; i++) {
+      ((Storable) plans[i]).readFrom(this, i);
+    }
+  }
+
+  /**
+   * @return The number of {@link Plan Plans} whose properties are stored.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the values of the given float property for every {@link Plan}, indexed like the
+   * working set. The array may be longer than {@link #size()}.
+   */
+  public float[] floats(int property) {
+    if (property >= floats.length) {
+      floats = Arrays.copyOf(floats, property + 1);
+    }
+    float[] values = floats[property];
+    if (values == null) {
+      values = new float[capacity];
+      floats[property] = values;
+    }
+    return values;
+  }
+
+  /**
+   * Returns the values of the given long property for every {@link Plan}, indexed like the working
+   * set. The array may be longer than {@link #size()}.
+   */
+  public long[] longs(int property) {
+    if (property >= longs.length) {
+      longs = Arrays.copyOf(longs, property + 1);
+    }
+    long[] values = longs[property];
+    if (values == null) {
+      values = new long[capacity];
+      longs[property] = values;
+    }
+    return values;
+  }
+
+  /**
+   * @return The value of the given float property for the {@link Plan} at the given index in the
+   *     working set.
+   */
+  public float getFloat(int property, int index) {
+    return floats(property)[index];
+  }
+
+  /**
+   * Sets the value of the given float property for the {@link Plan} at the given index in the
+   * working set.
+   */
+  public void setFloat(int property, int index, float value) {
+    floats(property)[index] = value;
+  }
+
+  /**
+   * @return The value of the given long property for the {@link Plan} at the given index in the
+   *     working set.
+   */
+  public long getLong(int property, int index) {
+    return longs(property)[index];
+  }
+
+  /**
+   * Sets the value of the given long property for the {@link Plan} at the given index in the
+   * working set.
+   */
+  public void setLong(int property, int index, long value) {
+    longs(property)[index] = value;
+  }
+
+  private void resize(int size) {
+    if (size > capacity) {
+      capacity = Math.max(size, capacity * 2);
+      for (int i = 0; i < floats.length; i++) {
+        if (floats[i] != null) {
+          floats[i] = new float[capacity];
+        }
+      }
+      for (int i = 0; i < longs.length; i++) {
+        if (longs[i] != null) {
+          longs[i] = new long[capacity];
+        }
+      }
+    }
+    this.size = size;
+  }
+
+  /**
+   * A {@link Plan} whose numeric properties can be modified through a {@link PropertyStore}.
+   */
+  public interface Storable {
+
+    /**
+     * Writes every numeric property of this {@link Plan} into the given store.
+     *
+     * @param index The index of this Plan in the working set.
+     */
+    void writeTo(PropertyStore store, int index);
+
+    /**
+     * Overwrites every numeric property of this {@link Plan} with its value in the given store.
+     *
+     * @param index The index of this Plan in the working set.
+     */
+    void readFrom(PropertyStore store, int index);
+  }
+}
@@ -21,7 +21,8 @@ import android.support.annotation.Nullable;
 import com.google.android.material.motion.runtime.Plan;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * A {@link Term} defines a working set of {@link Plan Plans} that accomplish a single
@@ -62,6 +63,8 @@ import java.util.Arrays;
  */
 public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends Expression {
 
+  private static final Plan[] NO_PLANS = new Plan[0];
+
   /**
    * The next {@link Language} on the {@link Expression} chain.
    * Use this to continue to chain {@link Term Terms} onto the Expression.
@@ -78,6 +81,15 @@ public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends
    * call {@link #plans()}.
    */
   private final Work work;
+  /**
+   * The {@link Plan Plans} computed by {@link #memoizedPlans()}, or null if they have not been
+   * computed since the last {@link #invalidatePlans()}.
+   */
+  @Nullable private volatile MemoizedPlans memoizedPlans;
+  /**
+   * The hash of this {@link Expression} chain's structure, or 0 if it has not been computed yet.
+   */
+  private int structureHash;
 
   /**
    * The initializing constructor.
@@ -86,30 +98,30 @@ public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends
    * Subclasses should call this from their own initializing constructor.
    *
    * @param language The {@link Language} instance passed into your {@link Term} constructor.
-   * @param initializer The {@link Initializer} for the given {@link Plan Plans}.
-   * @param plans The working set of Plans for this Term.
+   * @param initializer The {@link Initializer} for the given {@link Plan Plans}. It is run only
+   *     once, the first time the Plans are needed.
+   * @param plans The working set of Plans for this Term. Once initialized, they act as a template
+   *     that is copied by every Term modified from this one.
    */
-  protected Term(L language, @Nullable final Initializer initializer, final Plan... plans) {
+  protected Term(L language, @Nullable Initializer initializer, Plan... plans) {
     this.language = language;
-    this.work =
-        new Work() {
-          @Override
-          public Plan[] work() {
-            if (initializer != null) {
-              initializer.fullInitialize(plans);
-            }
-            return plans;
-          }
-        };
+    this.work = new Work.InitializerWork(initializer, plans);
     this.and = language.chain(this);
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    if (listener != null) {
+      listener.onTermCreated(getClass());
+    }
   }
 
   /**
    * The chaining constructor.
    *
    * <p>
-   * Subclasses should call this from their own chaining constructor, which must be annotated with
-   * {@link Keep} and have the same parameter types.
+   * Subclasses should call this from their own chaining constructor, which must have the same
+   * parameter types. Unless the expression annotation processor generates a factory for the
+   * subclass, the chaining constructor must also be annotated with {@link Keep}. No factory is
+   * generated for a private chaining constructor, which is invoked through reflection instead.
    *
    * @param language The {@link Language} instance passed into your {@link Term} constructor.
    * @param work The {@link Work} instance passed into your Term constructor.
@@ -119,6 +131,27 @@ public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends
     this.language = language;
     this.work = work;
     this.and = language.chain(this);
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    if (listener != null) {
+      listener.onTermCreated(getClass());
+    }
+  }
+
+  /**
+   * Registers a {@link Factory} that creates chained instances of the given {@link Term} subclass
+   * without reflection. A registered Factory is always preferred over the chaining constructor.
+   *
+   * <p>
+   * Subclasses may call this from a static initializer.
+   *
+   * @param termClass The Term subclass. Must be the exact runtime class of its instances. The class
+   *     literal of a generic subclass is accepted as is.
+   * @param factory The Factory that invokes the subclass's chaining constructor.
+   */
+  public static <T extends Term<?, L>, L extends Language<L>> void registerFactory(
+      Class<? super T> termClass, Factory<T, L> factory) {
+    ChainingFactories.registerTermFactory(termClass, factory);
   }
 
   /**
@@ -131,32 +164,34 @@ public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends
    * @param modifier The Modifier to be applied to all Plans in the working set.
    * @return A Term instance to enable chaining. Should be returned from your modifier.
    */
-  protected final T modify(final Modifier modifier) {
-    return chain(
-        new Work() {
-          @Override
-          public Plan[] work() {
-            Plan[] plans = work.work();
-            modifier.modify(plans);
-            return plans;
-          }
-        });
+  protected final T modify(Modifier modifier) {
+    return chain(Work.modify(work, modifier));
   }
 
   private T chain(Work work) {
     return newInstance(work);
   }
 
-  @SuppressWarnings({"TryWithIdenticalCatches", "unchecked"}) // Cast to Class<T> and Class<L>
+  @SuppressWarnings({"TryWithIdenticalCatches", "unchecked"}) // Cast to Class<T> and Factory<T, L>
   private T newInstance(Work work) {
+    Factory<T, L> factory = (Factory<T, L>) ChainingFactories.termFactory(getClass());
+    if (factory != null) {
+      return factory.newInstance(language, work);
+    }
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    long start = listener != null ? System.nanoTime() : 0L;
     try {
       Class<T> klass = (Class<T>) getClass();
-      Class<L> languageKlass = (Class<L>) language.getClass();
 
-      Constructor<T> constructor = klass.getDeclaredConstructor(languageKlass, Work.class);
-      constructor.setAccessible(true);
+      Constructor<T> constructor =
+          ChainingFactories.termConstructor(klass, language.getClass());
 
-      return constructor.newInstance(language, work);
+      T instance = constructor.newInstance(language, work);
+      if (listener != null) {
+        listener.onReflectiveInstantiation(klass, System.nanoTime() - start);
+      }
+      return instance;
     } catch (NoSuchMethodException e) {
       throw new BadImplementationException(this, BadImplementationException.MISSING_CONSTRUCTOR, e);
     } catch (IllegalAccessException e) {
@@ -168,40 +203,447 @@ public abstract class Term<T extends Term<?, L>, L extends Language<L>> extends
     }
   }
 
+  /**
+   * A factory that creates chained instances of a {@link Term} subclass without reflection.
+   *
+   * <p>
+   * Register an instance with {@link #registerFactory(Class, Factory)} to opt out of the reflective
+   * lookup of the chaining constructor.
+   *
+   * @param <T> Class type of your Term subclass.
+   * @param <L> Class type of your Language subclass.
+   */
+  public interface Factory<T extends Term<?, L>, L extends Language<L>> {
+
+    /**
+     * Creates a new instance of the Term subclass by invoking its chaining constructor.
+     *
+     * @param language The {@link Language} instance to pass into the chaining constructor.
+     * @param work The {@link Work} instance to pass into the chaining constructor.
+     */
+    T newInstance(L language, Work work);
+  }
+
   /**
    * @return The {@link Plan plans} defined in this {@link Expression} chain, including
    * the working set from this {@link Term} and all previous Terms.
    */
   public final Plan[] plans() {
-    Plan[] plans = language.plans();
-    return concat(plans, work.work());
+    return plans(null);
   }
 
   /**
-   * Concatenates two arrays.
-   * @param first The first array
-   * @param second The second array
-   * @param <T> The type of elements in A and B
-   * @return An array concatenating A + B
+   * Generates the {@link Plan plans} defined in this {@link Expression} chain, binding any
+   * {@link Parameter Parameters} to the given {@link Arguments}.
+   *
+   * <p>
+   * This allows the chain to be built once with {@link Modifier.ParameterizedModifier
+   * ParameterizedModifiers}, then evaluated repeatedly with different Arguments without allocating
+   * new Terms or Languages.
+   *
+   * @param arguments The values of the Parameters, or null to use their defaults.
+   * @return The Plans defined in this Expression chain, including the working set from this
+   *     {@link Term} and all previous Terms.
    */
-  private static <T> T[] concat(T[] first, T[] second) {
-    if (first == null) {
-      return second;
+  public final Plan[] plans(@Nullable Arguments arguments) {
+    Plan[] plans = new Plan[chainSize()];
+    writePlans(arguments, plans, plans.length, PlanPool.isInstalled());
+    return plans;
+  }
+
+  /**
+   * Generates the {@link Plan plans} defined in this {@link Expression} chain as new instances
+   * owned by the caller, which share no mutable state with any other evaluation.
+   */
+  final Plan[] ownedPlans(@Nullable Arguments arguments) {
+    Plan[] plans = new Plan[chainSize()];
+    writePlans(arguments, plans, plans.length, true);
+    return plans;
+  }
+
+  /**
+   * Appends the {@link Plan plans} defined in this {@link Expression} chain to the given
+   * {@link PlanBuffer}, binding any {@link Parameter Parameters} to the given {@link Arguments}.
+   *
+   * <p>
+   * Unlike {@link #plans(Arguments)}, this does not allocate a new array. Once the buffer has grown
+   * to its steady-state capacity, and with a {@link PlanPool} installed, evaluating a chain of
+   * Terms whose Modifiers all modify each Plan independently allocates nothing, as long as the
+   * Plans are returned to the pool with {@link PlanPool#release(PlanBuffer)}.
+   *
+   * @param arguments The values of the Parameters, or null to use their defaults.
+   * @param buffer The caller-owned buffer to append the Plans to.
+   */
+  public final void plans(@Nullable Arguments arguments, PlanBuffer buffer) {
+    int size = chainSize();
+    int offset = buffer.append(size);
+    writePlans(arguments, buffer.array(), offset + size, PlanPool.isInstalled());
+  }
+
+  /**
+   * Appends a separate set of the {@link Plan plans} defined in this {@link Expression} chain for
+   * each of the given number of targets to the given {@link PlanBuffer}.
+   *
+   * <p>
+   * The chain is evaluated once, and every other target receives a copy of its Plans, so this is
+   * much cheaper than calling {@link #plans(Arguments)} once per target. All the appended Plans are
+   * owned by the caller. The set of the target at index {@code i} starts at
+   * {@code start + i * size}, where {@code start} is the size of the buffer before the call and
+   * {@code size} is the number of Plans in this chain.
+   *
+   * @param arguments The values of the Parameters, or null to use their defaults.
+   * @param targetCount The number of targets.
+   * @param indexedModifier An optional Modifier applied to every Plan with the index of its
+   *     target, for example to stagger the targets.
+   * @param buffer The caller-owned buffer to append the Plans to.
+   */
+  public final void plans(
+      @Nullable Arguments arguments,
+      int targetCount,
+      @Nullable Modifier.IndexedModifier indexedModifier,
+      PlanBuffer buffer) {
+    if (targetCount <= 0) {
+      return;
     }
-    if (second == null) {
-      return first;
+
+    int size = chainSize();
+    int offset = buffer.append(size * targetCount);
+    Plan[] destination = buffer.array();
+    writePlans(arguments, destination, offset + size, true);
+
+    for (int target = 1; target < targetCount; target++) {
+      System.arraycopy(destination, offset, destination, offset + target * size, size);
+      for (int i = offset + target * size, end = i + size; i < end; i++) {
+        destination[i] = PlanPool.copy(destination[i]);
+      }
+    }
+
+    if (indexedModifier != null) {
+      for (int target = 0; target < targetCount; target++) {
+        for (int i = offset + target * size, end = i + size; i < end; i++) {
+          indexedModifier.modify(destination[i], target, targetCount);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The number of {@link Plan Plans} in this {@link Expression} chain.
+   */
+  private int chainSize() {
+    int size = 0;
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      size += term.work.size();
+    }
+    return size;
+  }
+
+  /**
+   * Writes the {@link Plan Plans} of every {@link Term} in this {@link Expression} chain into the
+   * given destination, such that the working set of this Term ends at the given index.
+   *
+   * <p>
+   * The chain is walked from this Term backwards, so that no intermediate array is needed.
+   *
+   * @param mutable Whether every written Plan must be owned by the caller. This is always the case
+   *     while a {@link PlanPool} is installed, so that the caller can release them.
+   */
+  private void writePlans(
+      @Nullable Arguments arguments, Plan[] destination, int end, boolean mutable) {
+    Instrumentation.Listener listener = Instrumentation.listener();
+
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      end -= term.work.size();
+      term.writeWorkingSet(arguments, destination, end, mutable, listener);
     }
-    int firstLen = first.length;
-    if (firstLen == 0) {
-      return second;
+  }
+
+  /**
+   * Writes the working set of this {@link Term} alone into the given destination.
+   */
+  private void writeWorkingSet(
+      @Nullable Arguments arguments,
+      Plan[] destination,
+      int offset,
+      boolean mutable,
+      @Nullable Instrumentation.Listener listener) {
+    long start = listener != null ? System.nanoTime() : 0L;
+    if (mutable) {
+      work.mutableWork(arguments, destination, offset);
+    } else {
+      work.work(arguments, destination, offset);
     }
-    int secondLen = second.length;
-    if (secondLen == 0) {
-      return first;
+    if (listener != null) {
+      listener.onWork(getClass(), work.size(), System.nanoTime() - start);
     }
+  }
+
+  /**
+   * Returns a lazy view of the {@link Plan plans} defined in this {@link Expression} chain, in the
+   * same order as {@link #plans(Arguments)}.
+   *
+   * <p>
+   * Each iteration walks the chain from the first {@link Term} to this one, and evaluates the
+   * working set of a Term only once the iterator reaches it. Only the current working set is held,
+   * so a caller that stops early or skips Plans never pays for the rest of the chain. The returned
+   * Plans follow the same ownership rules as {@link #plans(Arguments)}.
+   *
+   * @param arguments The values of the Parameters, or null to use their defaults.
+   * @return An Iterable whose every iterator evaluates the chain again.
+   */
+  public final Iterable<Plan> lazyPlans(@Nullable final Arguments arguments) {
+    return new Iterable<Plan>() {
+      @Override
+      public Iterator<Plan> iterator() {
+        return new LazyPlanIterator(terms(), arguments, PlanPool.isInstalled());
+      }
+    };
+  }
 
-    T[] result = Arrays.copyOf(first, firstLen + secondLen);
-    System.arraycopy(second, 0, result, firstLen, secondLen);
-    return result;
+  /**
+   * Compiles this {@link Expression} chain into a flat, immutable program that generates the same
+   * {@link Plan Plans} as {@link #plans()}, and can be instantiated many times without walking the
+   * chain again.
+   *
+   * @return The compiled Expression.
+   */
+  public final CompiledExpression compile() {
+    CompiledExpression.Builder builder = new CompiledExpression.Builder();
+    for (Term<?, ?> term : terms()) {
+      builder.beginTerm();
+      term.work.compile(builder);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Walks the {@link Expression} chain once.
+   *
+   * @return Every {@link Term} in the chain, from the first to this Term.
+   */
+  private Term<?, ?>[] terms() {
+    int count = 0;
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      count++;
+    }
+
+    Term<?, ?>[] terms = new Term<?, ?>[count];
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      terms[--count] = term;
+    }
+    return terms;
+  }
+
+  /**
+   * Returns the {@link Plan Plans} defined in this {@link Expression} chain, computing them only on
+   * the first call. Subsequent calls do not run any {@link Initializer} or {@link Modifier}, and
+   * return a copy of the array holding the same Plan instances.
+   *
+   * <p>
+   * The computation is incremental: every Term in the chain remembers its own memoized working set
+   * along with the memoized prefix of the chain it was evaluated on top of, and a Term only
+   * evaluates its working set on top of the longest memoized prefix of the chain. So extending a
+   * chain one link at a time and calling this on each new tail evaluates each link once, and never
+   * copies the Plans of the prefix until they are returned.
+   *
+   * <p>
+   * The returned Plans are shared between calls and with every Term that extends this chain, so
+   * they should not be mutated. Call {@link #invalidatePlans()} to have the next call compute them
+   * again.
+   *
+   * @return The Plans defined in this Expression chain.
+   */
+  public final Plan[] memoizedPlans() {
+    MemoizedPlans plans = memoizedPlans;
+    if (plans == null) {
+      plans = memoizePlans();
+    }
+    return plans.toArray();
+  }
+
+  /**
+   * Memoizes the Plans of every {@link Term} between the longest memoized prefix of this
+   * {@link Expression} chain and this Term, evaluating only their working sets.
+   */
+  private MemoizedPlans memoizePlans() {
+    MemoizedPlans prefix = null;
+    int pending = 0;
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      MemoizedPlans memoized = term.memoizedPlans;
+      if (memoized != null) {
+        prefix = memoized;
+        break;
+      }
+      pending++;
+    }
+
+    Term<?, ?>[] terms = new Term<?, ?>[pending];
+    Term<?, ?> term = this;
+    for (int i = pending - 1; i >= 0; i--) {
+      terms[i] = term;
+      term = term.language.previousTerm();
+    }
+
+    Instrumentation.Listener listener = Instrumentation.listener();
+    for (Term<?, ?> next : terms) {
+      int size = next.work.size();
+      Plan[] workingSet = size == 0 ? NO_PLANS : new Plan[size];
+      // Memoized Plans are never mutated, so they may share the templates.
+      next.writeWorkingSet(null, workingSet, 0, false, listener);
+      prefix = new MemoizedPlans(prefix, workingSet);
+      next.memoizedPlans = prefix;
+    }
+    return prefix;
+  }
+
+  /**
+   * Discards the {@link Plan Plans} computed by {@link #memoizedPlans()} for this {@link Term}, so
+   * that the next call evaluates its working set again. The memoized Plans of previous Terms in the
+   * chain are kept.
+   */
+  public final void invalidatePlans() {
+    memoizedPlans = null;
+  }
+
+  /**
+   * Whether the given {@link Term} has the same structure as this Term: the same Term and
+   * {@link Language} classes at every link of the {@link Expression} chain, with equal
+   * {@link Work}. Such Terms generate the same {@link Plan Plans}.
+   */
+  final boolean sameStructure(Term<?, ?> other) {
+    if (structureHash() != other.structureHash()) {
+      return false;
+    }
+
+    Term<?, ?> a = this;
+    Term<?, ?> b = other;
+    while (a != null && b != null) {
+      if (a == b) {
+        return true;
+      }
+      if (a.getClass() != b.getClass()
+          || a.language.getClass() != b.language.getClass()
+          || !a.work.equals(b.work)) {
+        return false;
+      }
+      a = a.language.previousTerm();
+      b = b.language.previousTerm();
+    }
+    return a == b;
+  }
+
+  /**
+   * Whether the root {@link Work} of every {@link Term} in this {@link Expression} chain can be
+   * equal to the root of another chain. Otherwise this chain is only ever structurally identical
+   * to chains that branch off of the same Term instances.
+   */
+  final boolean hasStructuralRoots() {
+    for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+      if (!term.work.hasStructuralRoot()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return A hash of this {@link Expression} chain's structure, consistent with
+   *     {@link #sameStructure(Term)}.
+   */
+  final int structureHash() {
+    // Racing threads compute the same value, so the field needs no synchronization.
+    int hash = structureHash;
+    if (hash == 0) {
+      hash = 1;
+      for (Term<?, ?> term = this; term != null; term = term.language.previousTerm()) {
+        hash = 31 * hash + term.getClass().hashCode();
+        hash = 31 * hash + term.language.getClass().hashCode();
+        hash = 31 * hash + term.work.hashCode();
+      }
+      structureHash = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * The memoized {@link Plan Plans} of an {@link Expression} chain, stored as the working set of
+   * its last {@link Term} on top of the memoized Plans of the previous Terms. Extending a memoized
+   * chain by one Term therefore does not copy the Plans of the chain before it.
+   */
+  private static final class MemoizedPlans {
+
+    @Nullable private final MemoizedPlans prefix;
+    private final Plan[] workingSet;
+    /**
+     * The index of the first Plan of the working set in the chain.
+     */
+    private final int offset;
+
+    private MemoizedPlans(@Nullable MemoizedPlans prefix, Plan[] workingSet) {
+      this.prefix = prefix;
+      this.workingSet = workingSet;
+      this.offset = prefix != null ? prefix.offset + prefix.workingSet.length : 0;
+    }
+
+    /**
+     * @return A new array holding the Plans of the chain, in order.
+     */
+    private Plan[] toArray() {
+      Plan[] plans = new Plan[offset + workingSet.length];
+      for (MemoizedPlans memoized = this; memoized != null; memoized = memoized.prefix) {
+        Plan[] workingSet = memoized.workingSet;
+        System.arraycopy(workingSet, 0, plans, memoized.offset, workingSet.length);
+      }
+      return plans;
+    }
+  }
+
+  /**
+   * Iterates over the Plans of an {@link Expression} chain, evaluating one working set at a time.
+   */
+  private static final class LazyPlanIterator implements Iterator<Plan> {
+
+    private final Term<?, ?>[] terms;
+    @Nullable private final Arguments arguments;
+    private final boolean mutable;
+
+    private int nextTerm;
+    private Plan[] workingSet = NO_PLANS;
+    private int nextPlan;
+
+    private LazyPlanIterator(Term<?, ?>[] terms, @Nullable Arguments arguments, boolean mutable) {
+      this.terms = terms;
+      this.arguments = arguments;
+      this.mutable = mutable;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (nextPlan == workingSet.length) {
+        if (nextTerm == terms.length) {
+          return false;
+        }
+
+        Term<?, ?> term = terms[nextTerm++];
+        int size = term.work.size();
+        workingSet = size == 0 ? NO_PLANS : new Plan[size];
+        nextPlan = 0;
+        term.writeWorkingSet(arguments, workingSet, 0, mutable, Instrumentation.listener());
+      }
+      return true;
+    }
+
+    @Override
+    public Plan next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return workingSet[nextPlan++];
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
   }
 }
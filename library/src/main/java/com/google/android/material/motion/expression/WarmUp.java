@@ -0,0 +1,260 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * A registry of the {@link Language} and {@link Term} subclasses an app uses, which can be warmed
+ * up on a background thread during startup.
+ *
+ * <p>
+ * The first use of an {@link Expression} subclass otherwise pays for class initialization, the
+ * lookup of a generated factory and the reflective lookup of its chaining constructor, which can
+ * cause jank on the first animation of a screen. Warming up does all of these ahead of time and
+ * caches the factory or constructor of each class. Evaluating a registered representative
+ * Expression also loads and initializes the classes of the Plans, Initializers and Modifiers it
+ * uses.
+ *
+ * <p>
+ * Initializer chains are not cached per class: each Term flattens its own chain when it is
+ * created, since its Initializers capture the values of that instance. Warming up a
+ * representative Expression runs its Initializers once, which only loads their classes.
+ *
+ * <p>
+ * Register every subclass once, for example in {@code Application#onCreate()}, then call
+ * {@link #warmUp(Executor, Callback)}.
+ */
+public final class WarmUp {
+
+  private static final List<Task> tasks = new CopyOnWriteArrayList<>();
+
+  private WarmUp() {}
+
+  /**
+   * Registers a {@link Language} subclass, whose chaining factory or constructor is resolved on
+   * warm-up.
+   */
+  public static void registerLanguage(final Class<? extends Language<?>> languageClass) {
+    tasks.add(
+        new Task("Language " + languageClass.getName()) {
+          @Override
+          void run() throws Exception {
+            initialize(languageClass);
+            if (ChainingFactories.languageFactory(languageClass) == null) {
+              ChainingFactories.languageConstructor(languageClass);
+            }
+          }
+        });
+  }
+
+  /**
+   * Registers a {@link Term} subclass, whose chaining factory or constructor is resolved on
+   * warm-up.
+   *
+   * @param termClass The Term subclass. The class literal of a generic subclass is accepted as is.
+   * @param languageClass The Language subclass that is passed into its chaining constructor.
+   */
+  public static <T extends Term<?, ?>> void registerTerm(
+      final Class<? super T> termClass, final Class<? extends Language<?>> languageClass) {
+    tasks.add(
+        new Task("Term " + termClass.getName()) {
+          @Override
+          void run() throws Exception {
+            initialize(termClass);
+            if (ChainingFactories.termFactory(termClass) == null) {
+              ChainingFactories.termConstructor(termClass, languageClass);
+            }
+          }
+        });
+  }
+
+  /**
+   * Registers a representative {@link Expression} chain, which is built and evaluated on warm-up.
+   * This loads and initializes the classes of the Plans, Initializers and Modifiers it uses. The
+   * chain itself is discarded.
+   *
+   * @param name The name of the Expression in the {@link Report}.
+   * @param builder Builds the Expression chain on the warm-up thread.
+   */
+  public static void registerExpression(String name, final Callable<? extends Term<?, ?>> builder) {
+    tasks.add(
+        new Task("Expression " + name) {
+          @Override
+          void run() throws Exception {
+            builder.call().plans();
+          }
+        });
+  }
+
+  /**
+   * Warms up every registered class and Expression on the given {@link Executor}, then delivers a
+   * {@link Report} to the given {@link Callback} on the main thread.
+   */
+  public static void warmUp(Executor executor, @Nullable final Callback callback) {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    executor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final Report report = warmUpNow();
+            if (callback != null) {
+              handler.post(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      callback.onWarmUpComplete(report);
+                    }
+                  });
+            }
+          }
+        });
+  }
+
+  /**
+   * Warms up every registered class and Expression on the calling thread. A task that throws an
+   * exception, or a {@link LinkageError} such as an error thrown while initializing a class, is
+   * reported in its {@link Timing} and does not stop the other tasks. Any other error, such as an
+   * {@link OutOfMemoryError}, is rethrown.
+   *
+   * @return The time each warm-up task took.
+   */
+  @SuppressWarnings("TryWithIdenticalCatches")
+  public static Report warmUpNow() {
+    List<Timing> timings = new ArrayList<>();
+    for (Task task : tasks) {
+      long start = System.nanoTime();
+      Throwable error = null;
+      try {
+        task.run();
+      } catch (Exception e) {
+        error = e;
+      } catch (LinkageError e) {
+        error = e;
+      }
+      timings.add(new Timing(task.name, System.nanoTime() - start, error));
+    }
+    return new Report(timings);
+  }
+
+  private static void initialize(Class<?> klass) throws ClassNotFoundException {
+    Class.forName(klass.getName(), true, klass.getClassLoader());
+  }
+
+  /**
+   * A callback that receives the {@link Report} of a warm-up.
+   */
+  public interface Callback {
+
+    /**
+     * Called on the main thread once every registered warm-up task has run.
+     */
+    void onWarmUpComplete(Report report);
+  }
+
+  /**
+   * The time taken by each warm-up task, in registration order.
+   */
+  public static final class Report {
+
+    private final List<Timing> timings;
+
+    private Report(List<Timing> timings) {
+      this.timings = Collections.unmodifiableList(timings);
+    }
+
+    public List<Timing> getTimings() {
+      return timings;
+    }
+
+    public long getTotalNanos() {
+      long total = 0;
+      for (Timing timing : timings) {
+        total += timing.getNanos();
+      }
+      return total;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      builder.append(
+          String.format(Locale.US, "Expression warm-up: %.3f ms", getTotalNanos() / 1e6));
+      for (Timing timing : timings) {
+        builder.append('\n').append(timing);
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * The time taken by a single warm-up task.
+   */
+  public static final class Timing {
+
+    private final String name;
+    private final long nanos;
+    @Nullable private final Throwable error;
+
+    private Timing(String name, long nanos, @Nullable Throwable error) {
+      this.name = name;
+      this.nanos = nanos;
+      this.error = error;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * @return The exception or {@link LinkageError} thrown by the task, or null if it succeeded.
+     */
+    @Nullable
+    public Throwable getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.US, "  %s: %.3f ms", name, nanos / 1e6)
+          + (error != null ? " (failed: " + error + ")" : "");
+    }
+  }
+
+  private static abstract class Task {
+
+    private final String name;
+
+    private Task(String name) {
+      this.name = name;
+    }
+
+    abstract void run() throws Exception;
+  }
+}
@@ -15,7 +15,11 @@
  */
 package com.google.android.material.motion.expression;
 
+import android.support.annotation.Nullable;
 import com.google.android.material.motion.runtime.Plan;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A function object that represents an arbitrary unit of work which generates
@@ -29,10 +33,607 @@ import com.google.android.material.motion.runtime.Plan;
  * Clients should instead implement a {@link Modifier} for {@link Term#modify(Modifier)} or
  * {@link Initializer} for {@link Term#Term(Language, Initializer, Plan...)}, which become
  * wrapped in a Work instance behind the scenes.
+ *
+ * <p>
+ * Two units of work are equal if they generate the same Plans, as far as the equality of their
+ * Initializers and Modifiers can tell.
  */
 public abstract class Work {
 
   Work() {}
 
-  abstract Plan[] work();
+  /**
+   * Writes the {@link Plan Plans} generated by this unit of work into the given destination.
+   *
+   * <p>
+   * The written Plans may be shared with other units of work, and must not be mutated. Call
+   * {@link #mutableWork(Arguments, Plan[], int)} instead to obtain Plans that can be modified.
+   *
+   * @param arguments The values of any {@link Parameter Parameters}, or null to use their defaults.
+   * @param destination The array to write {@link #size()} Plans into.
+   * @param offset The index in the destination to write the first Plan at.
+   */
+  abstract void work(@Nullable Arguments arguments, Plan[] destination, int offset);
+
+  /**
+   * Writes the {@link Plan Plans} generated by this unit of work into the given destination. The
+   * written Plans are owned by the caller and can be modified.
+   *
+   * @param arguments The values of any {@link Parameter Parameters}, or null to use their defaults.
+   * @param destination The array to write {@link #size()} Plans into.
+   * @param offset The index in the destination to write the first Plan at.
+   */
+  abstract void mutableWork(@Nullable Arguments arguments, Plan[] destination, int offset);
+
+  /**
+   * Returns the number of {@link Plan Plans} generated by this unit of work, without doing the
+   * work.
+   */
+  abstract int size();
+
+  /**
+   * Adds this unit of work to the given {@link CompiledExpression.Builder}, after the units of work
+   * it wraps.
+   */
+  abstract void compile(CompiledExpression.Builder builder);
+
+  /**
+   * Whether the {@link InitializerWork} at the root of this unit of work can be equal to a root
+   * other than itself.
+   */
+  abstract boolean hasStructuralRoot();
+
+  /**
+   * Returns the number of Modifiers applied by this unit of work and the units of work it wraps.
+   * This is also the position in the chain of the next Modifier.
+   */
+  abstract int modifierCount();
+
+  /**
+   * Returns the properties overwritten by the trailing run of Modifiers that declare them, or null
+   * if the last Modifier does not declare its properties.
+   */
+  @Nullable
+  abstract Shadow shadow();
+
+  /**
+   * Returns a unit of work that applies the given {@link Modifier} to the Plans of the given unit
+   * of work.
+   *
+   * <p>
+   * If the Modifier declares the {@link Modifier#overwrittenProperties() properties it overwrites},
+   * previous Modifiers whose writes are all overwritten before any Modifier could read them are
+   * dropped. The given unit of work is left untouched, since other branches may share it.
+   *
+   * <p>
+   * Consecutive Modifiers that {@link Modifier.PlanModifier modify each Plan} independently are
+   * fused into a single {@link FusedModifierWork}, which applies all of them to each Plan in a
+   * single pass. Consecutive {@link Modifier.PropertyModifier PropertyModifiers} are likewise fused
+   * into a single run over one {@link PropertyStore}.
+   */
+  static Work modify(Work work, Modifier modifier) {
+    long overwritten = modifier.overwrittenProperties();
+    Shadow shadow = work.shadow();
+    if (overwritten != Modifier.UNKNOWN_PROPERTIES && shadow != null) {
+      int[] shadowed = shadow.shadowedBy(overwritten);
+      if (shadowed != null) {
+        work = withoutModifiers(work, shadowed);
+      }
+    }
+    return append(work, modifier);
+  }
+
+  private static Work append(Work work, Modifier modifier) {
+    if (modifier instanceof Modifier.PropertyModifier
+        && work instanceof ModifierWork
+        && ((ModifierWork) work).modifier instanceof Modifier.PropertyModifier) {
+      // Share one PropertyStore across the run instead of gathering the Plans again.
+      ModifierWork previous = (ModifierWork) work;
+      return new ModifierWork(
+          previous.work,
+          Modifier.PropertyModifierRun.of(
+              (Modifier.PropertyModifier) previous.modifier, (Modifier.PropertyModifier) modifier));
+    }
+    if (modifier instanceof Modifier.PlanModifier) {
+      Modifier.PlanModifier planModifier = (Modifier.PlanModifier) modifier;
+      if (work instanceof FusedModifierWork) {
+        return ((FusedModifierWork) work).append(planModifier);
+      }
+      return new FusedModifierWork(work, new Modifier.PlanModifier[] {planModifier});
+    }
+    return new ModifierWork(work, modifier);
+  }
+
+  /**
+   * Rebuilds the given unit of work without the Modifiers at the given positions. Only the units
+   * of work from the first of them onwards are rebuilt.
+   *
+   * @param positions The positions of the Modifiers to drop, in ascending order.
+   */
+  private static Work withoutModifiers(Work work, int[] positions) {
+    // The Modifiers from the last one backwards, down to the unit of work that applies the first
+    // dropped Modifier.
+    List<Modifier> modifiers = new ArrayList<>();
+    Work root = work;
+    while (root.modifierCount() > positions[0]) {
+      if (root instanceof ModifierWork) {
+        modifiers.add(((ModifierWork) root).modifier);
+        root = ((ModifierWork) root).work;
+      } else {
+        Modifier[] fused = ((FusedModifierWork) root).modifiers;
+        for (int i = fused.length - 1; i >= 0; i--) {
+          modifiers.add(fused[i]);
+        }
+        root = ((FusedModifierWork) root).work;
+      }
+    }
+
+    Work live = root;
+    int position = root.modifierCount();
+    for (int i = modifiers.size() - 1; i >= 0; i--, position++) {
+      if (Arrays.binarySearch(positions, position) < 0) {
+        live = append(live, modifiers.get(i));
+      }
+    }
+    return live;
+  }
+
+  /**
+   * The properties overwritten by a trailing run of Modifiers that declare their
+   * {@link Modifier#overwrittenProperties() overwritten properties}, each mapped to the position
+   * of the last Modifier that overwrites it.
+   *
+   * <p>
+   * A Modifier that no longer owns any property is shadowed by the Modifiers after it, so it has
+   * already been dropped. Every Modifier in the run therefore owns at least one of the 64
+   * properties, and a new Modifier is checked against the owners of its own properties only,
+   * without walking the chain.
+   */
+  static final class Shadow {
+
+    private final long properties;
+    /**
+     * The position of the owner of each property, from the lowest bit of the properties.
+     */
+    private final int[] owners;
+
+    private Shadow(long properties, int[] owners) {
+      this.properties = properties;
+      this.owners = owners;
+    }
+
+    /**
+     * Returns the properties after the given Modifier is applied at the given position.
+     *
+     * @param previous The properties before the Modifier, or null if there are none.
+     * @return The new properties, or null if the Modifier does not declare its properties.
+     */
+    @Nullable
+    static Shadow after(@Nullable Shadow previous, Modifier modifier, int position) {
+      long overwritten = modifier.overwrittenProperties();
+      if (overwritten == Modifier.UNKNOWN_PROPERTIES) {
+        return null;
+      }
+      long previousProperties = previous != null ? previous.properties : 0L;
+      long properties = previousProperties | overwritten;
+
+      int[] owners = new int[Long.bitCount(properties)];
+      int index = 0;
+      int previousIndex = 0;
+      for (long bits = properties; bits != 0; bits &= bits - 1) {
+        long bit = Long.lowestOneBit(bits);
+        if ((previousProperties & bit) != 0) {
+          owners[index] = previous.owners[previousIndex++];
+        }
+        if ((overwritten & bit) != 0) {
+          owners[index] = position;
+        }
+        index++;
+      }
+      return new Shadow(properties, owners);
+    }
+
+    /**
+     * Returns the positions of the Modifiers whose properties are all overwritten by the given
+     * properties, in ascending order, or null if there are none.
+     */
+    @Nullable
+    int[] shadowedBy(long overwritten) {
+      if ((properties & overwritten) == 0) {
+        return null;
+      }
+
+      int[] shadowed = new int[owners.length];
+      int count = 0;
+      int index = 0;
+      for (long bits = properties; bits != 0; bits &= bits - 1, index++) {
+        int owner = owners[index];
+        if ((overwritten & Long.lowestOneBit(bits)) != 0 && (ownedBy(owner) & ~overwritten) == 0) {
+          shadowed[count++] = owner;
+        }
+      }
+      if (count == 0) {
+        return null;
+      }
+
+      // A Modifier that owns several properties was added once for each of them.
+      Arrays.sort(shadowed, 0, count);
+      int unique = 1;
+      for (int i = 1; i < count; i++) {
+        if (shadowed[i] != shadowed[unique - 1]) {
+          shadowed[unique++] = shadowed[i];
+        }
+      }
+      return Arrays.copyOf(shadowed, unique);
+    }
+
+    private long ownedBy(int owner) {
+      long owned = 0L;
+      int index = 0;
+      for (long bits = properties; bits != 0; bits &= bits - 1, index++) {
+        if (owners[index] == owner) {
+          owned |= Long.lowestOneBit(bits);
+        }
+      }
+      return owned;
+    }
+  }
+
+  /**
+   * The unit of work at the root of every {@link Term}, which initializes its working set of
+   * {@link Plan Plans}.
+   *
+   * <p>
+   * The working set is initialized only once, after which it acts as an immutable template that
+   * every {@link ModifierWork} branching off of this Term copies before modifying. This means
+   * sibling branches never share mutable Plans, and the copy is paid only by the branches that
+   * actually diverge from the template.
+   */
+  static final class InitializerWork extends Work {
+
+    private static final Initializer[] NO_INITIALIZERS = new Initializer[0];
+
+    @Nullable private final Initializer initializer;
+    /**
+     * The Initializer followed by every subclass Initializer, flattened once for this Term and
+     * shared by all of its branches.
+     */
+    private final Initializer[] chain;
+    private final Plan[] plans;
+    private volatile boolean initialized;
+
+    InitializerWork(@Nullable Initializer initializer, Plan[] plans) {
+      this.initializer = initializer;
+      this.chain = initializer != null ? initializer.chain() : NO_INITIALIZERS;
+      this.plans = plans;
+    }
+
+    /**
+     * Returns the initialized templates, which must not be mutated.
+     */
+    Plan[] templates() {
+      if (!initialized) {
+        synchronized (this) {
+          if (!initialized) {
+            if (initializer != null) {
+              Instrumentation.Listener listener = Instrumentation.listener();
+              long start = listener != null ? System.nanoTime() : 0L;
+              Initializer.initializeAll(chain, plans);
+              if (listener != null) {
+                listener.onInitialize(initializer, plans.length, System.nanoTime() - start);
+              }
+            }
+            initialized = true;
+          }
+        }
+      }
+      return plans;
+    }
+
+    @Override
+    void work(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      Plan[] templates = templates();
+      System.arraycopy(templates, 0, destination, offset, templates.length);
+    }
+
+    @Override
+    void mutableWork(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      Plan[] templates = templates();
+      for (int i = 0; i < templates.length; i++) {
+        destination[offset + i] = PlanPool.copy(templates[i]);
+      }
+    }
+
+    @Override
+    int size() {
+      return plans.length;
+    }
+
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+      builder.addTemplates(templates());
+    }
+
+    /**
+     * Two root units of work are equal if they run equal {@link Initializer Initializers} that
+     * {@link Initializer#determinesPlans() determine their Plans} over Plans of the same classes.
+     * Otherwise the state of the Plans passed into the Term constructor cannot be compared, so a
+     * root unit of work is only equal to itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof InitializerWork)) {
+        return false;
+      }
+      InitializerWork other = (InitializerWork) o;
+      if (!isStructural() || !initializer.equals(other.initializer)) {
+        return false;
+      }
+      if (plans.length != other.plans.length) {
+        return false;
+      }
+      for (int i = 0; i < plans.length; i++) {
+        if (plans[i].getClass() != other.plans[i].getClass()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      if (!isStructural()) {
+        return System.identityHashCode(this);
+      }
+      int hash = initializer.hashCode();
+      for (Plan plan : plans) {
+        hash = 31 * hash + plan.getClass().hashCode();
+      }
+      return hash;
+    }
+
+    @Override
+    boolean hasStructuralRoot() {
+      return isStructural();
+    }
+
+    @Override
+    int modifierCount() {
+      return 0;
+    }
+
+    @Nullable
+    @Override
+    Shadow shadow() {
+      return null;
+    }
+
+    private boolean isStructural() {
+      return initializer != null && initializer.determinesPlans();
+    }
+  }
+
+  /**
+   * A unit of work that applies a {@link Modifier} to the Plans of the unit of work it wraps.
+   */
+  static final class ModifierWork extends Work {
+
+    private final Work work;
+    private final Modifier modifier;
+    private final int modifierCount;
+    @Nullable private final Shadow shadow;
+
+    ModifierWork(Work work, Modifier modifier) {
+      this.work = work;
+      this.modifier = modifier;
+      this.modifierCount = work.modifierCount() + 1;
+      this.shadow = Shadow.after(work.shadow(), modifier, work.modifierCount());
+    }
+
+    @Override
+    void work(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      mutableWork(arguments, destination, offset);
+    }
+
+    @Override
+    void mutableWork(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      // The wrapped work copies the template only if it is the root of this branch.
+      work.mutableWork(arguments, destination, offset);
+
+      Instrumentation.Listener listener = Instrumentation.listener();
+      long start = listener != null ? System.nanoTime() : 0L;
+
+      int size = size();
+      if (offset == 0 && destination.length == size) {
+        modifier.modify(destination, arguments);
+      } else {
+        // A Modifier expects exactly the working set of its Term.
+        Plan[] workingSet = Arrays.copyOfRange(destination, offset, offset + size);
+        modifier.modify(workingSet, arguments);
+        System.arraycopy(workingSet, 0, destination, offset, size);
+      }
+
+      if (listener != null) {
+        listener.onModify(modifier, size, System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    int size() {
+      return work.size();
+    }
+
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+      work.compile(builder);
+      builder.addModifier(modifier);
+    }
+
+    @Override
+    boolean hasStructuralRoot() {
+      return work.hasStructuralRoot();
+    }
+
+    @Override
+    int modifierCount() {
+      return modifierCount;
+    }
+
+    @Nullable
+    @Override
+    Shadow shadow() {
+      return shadow;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ModifierWork)) {
+        return false;
+      }
+      ModifierWork other = (ModifierWork) o;
+      return modifier.equals(other.modifier) && work.equals(other.work);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * work.hashCode() + modifier.hashCode();
+    }
+  }
+
+  /**
+   * A unit of work that applies a run of Modifiers that {@link Modifier.PlanModifier modify each
+   * Plan} independently to the Plans of the unit of work it wraps, in a single pass over the
+   * Plans.
+   *
+   * <p>
+   * Since such a Modifier only modifies the Plan it is given, applying every Modifier to one Plan
+   * before moving on to the next is equivalent to applying each Modifier to all Plans in turn.
+   */
+  static final class FusedModifierWork extends Work {
+
+    private final Work work;
+    private final Modifier.PlanModifier[] modifiers;
+    @Nullable private final Shadow shadow;
+
+    FusedModifierWork(Work work, Modifier.PlanModifier[] modifiers) {
+      this.work = work;
+      this.modifiers = modifiers;
+      Shadow shadow = work.shadow();
+      for (int i = 0; i < modifiers.length; i++) {
+        shadow = Shadow.after(shadow, modifiers[i], work.modifierCount() + i);
+      }
+      this.shadow = shadow;
+    }
+
+    private FusedModifierWork(
+        Work work, Modifier.PlanModifier[] modifiers, @Nullable Shadow shadow) {
+      this.work = work;
+      this.modifiers = modifiers;
+      this.shadow = shadow;
+    }
+
+    /**
+     * Returns a new unit of work that also applies the given {@link Modifier} after this run. This
+     * instance is left untouched, since other branches may share it.
+     */
+    FusedModifierWork append(Modifier.PlanModifier modifier) {
+      Modifier.PlanModifier[] modifiers = Arrays.copyOf(this.modifiers, this.modifiers.length + 1);
+      modifiers[this.modifiers.length] = modifier;
+      Shadow shadow = Shadow.after(this.shadow, modifier, modifierCount());
+      return new FusedModifierWork(work, modifiers, shadow);
+    }
+
+    @Override
+    void work(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      mutableWork(arguments, destination, offset);
+    }
+
+    @Override
+    void mutableWork(@Nullable Arguments arguments, Plan[] destination, int offset) {
+      work.mutableWork(arguments, destination, offset);
+
+      int end = offset + size();
+      Instrumentation.Listener listener = Instrumentation.listener();
+      if (listener != null) {
+        instrumentedModify(listener, arguments, destination, offset, end);
+        return;
+      }
+
+      for (int i = offset; i < end; i++) {
+        Plan plan = destination[i];
+        for (Modifier.PlanModifier modifier : modifiers) {
+          modifier.modifyPlan(plan, arguments);
+        }
+      }
+    }
+
+    /**
+     * Applies each Modifier to all Plans in turn instead of fusing them, so that the time spent in
+     * each Modifier can be reported. The result is the same.
+     */
+    private void instrumentedModify(
+        Instrumentation.Listener listener,
+        @Nullable Arguments arguments,
+        Plan[] destination,
+        int offset,
+        int end) {
+      for (Modifier.PlanModifier modifier : modifiers) {
+        long start = System.nanoTime();
+        for (int i = offset; i < end; i++) {
+          modifier.modifyPlan(destination[i], arguments);
+        }
+        listener.onModify(modifier, end - offset, System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    int size() {
+      return work.size();
+    }
+
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+      work.compile(builder);
+      builder.addFusedModifiers(modifiers);
+    }
+
+    @Override
+    boolean hasStructuralRoot() {
+      return work.hasStructuralRoot();
+    }
+
+    @Override
+    int modifierCount() {
+      return work.modifierCount() + modifiers.length;
+    }
+
+    @Nullable
+    @Override
+    Shadow shadow() {
+      return shadow;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof FusedModifierWork)) {
+        return false;
+      }
+      FusedModifierWork other = (FusedModifierWork) o;
+      return Arrays.equals(modifiers, other.modifiers) && work.equals(other.work);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * work.hashCode() + Arrays.hashCode(modifiers);
+    }
+  }
 }
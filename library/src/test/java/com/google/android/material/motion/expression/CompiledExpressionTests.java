@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link Term#compile()} and {@link CompiledExpression}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CompiledExpressionTests {
+
+  @Test
+  public void instantiateMatchesPlans() {
+    TestTerm<?> term =
+        new TestLanguage().term().modifier("a").modifier("b").and.term().and.term().modifier("c");
+
+    CompiledExpression compiled = term.compile();
+
+    assertThat(compiled.size()).isEqualTo(3);
+    assertThat(texts(compiled.instantiate())).isEqualTo(texts(term.plans()));
+  }
+
+  @Test
+  public void instantiateReturnsNewPlansEveryCall() {
+    CompiledExpression compiled = new TestLanguage().term().modifier("a").compile();
+
+    Plan[] first = compiled.instantiate();
+    ((TestPlan) first[0]).text = "mutated";
+    Plan[] second = compiled.instantiate();
+
+    assertThat(second[0]).isNotSameAs(first[0]);
+    assertThat(texts(second)).isEqualTo("a");
+  }
+
+  @Test
+  public void instantiateDoesNotRunInitializersAgain() {
+    AtomicInteger initializations = new AtomicInteger();
+    CompiledExpression compiled = new TestLanguage().term(initializations).modifier("a").compile();
+
+    compiled.instantiate();
+    compiled.instantiate();
+
+    assertThat(initializations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void instantiateBindsArguments() {
+    Parameter<String> text = new Parameter<>("text", "default");
+    CompiledExpression compiled =
+        new TestLanguage().term().text(text).and.term().modifier("b").text(text).compile();
+
+    assertThat(texts(compiled.instantiate())).isEqualTo("default,default");
+    assertThat(texts(compiled.instantiate(new Arguments().set(text, "bound"))))
+        .isEqualTo("bound,bound");
+  }
+}
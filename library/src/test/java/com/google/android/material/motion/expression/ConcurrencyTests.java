@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Stress tests for the thread-safety contract of {@link Expression} chains.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ConcurrencyTests {
+
+  private static final int THREADS = 8;
+  private static final int ITERATIONS = 500;
+  private static final int BRANCHES = 16;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    PlanPool.install(null);
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void siblingBranchesEvaluateConcurrently() throws Exception {
+    final TestTerm<?> base = new TestLanguage().term();
+    final List<TestTerm<?>> branches = new ArrayList<>();
+    for (int i = 0; i < BRANCHES; i++) {
+      branches.add(base.modifier("b" + i).and.term().modifier("x" + i));
+    }
+
+    runConcurrently(
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int n = 0; n < ITERATIONS; n++) {
+              int i = n % BRANCHES;
+              assertThat(texts(branches.get(i).plans())).isEqualTo("b" + i + ",x" + i);
+            }
+            return null;
+          }
+        });
+
+    assertThat(texts(base.plans())).isEqualTo("default");
+  }
+
+  @Test
+  public void initializerRunsOnceWhenEvaluatedConcurrently() throws Exception {
+    final AtomicInteger initializations = new AtomicInteger();
+    final TestTerm<?> term = new TestLanguage().term(initializations).modifier("m");
+
+    runConcurrently(
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int n = 0; n < ITERATIONS; n++) {
+              assertThat(texts(term.plans())).isEqualTo("m");
+            }
+            return null;
+          }
+        });
+
+    assertThat(initializations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void chainsBuildConcurrentlyFromSharedLanguage() throws Exception {
+    final TestLanguage language = new TestLanguage();
+
+    runConcurrently(
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int n = 0; n < ITERATIONS; n++) {
+              TestTerm<?> term = language.term().modifier("a" + n).and.term().and.term();
+              assertThat(texts(term.plans())).isEqualTo("a" + n + ",default,default");
+            }
+            return null;
+          }
+        });
+  }
+
+  @Test
+  public void pooledPlansAreNeverSharedBetweenThreads() throws Exception {
+    PlanPool.install(new PlanPool(THREADS * 4));
+    final TestTerm<?> term = new TestLanguage().term().modifier("p").and.term();
+
+    runConcurrently(
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            String owner = Thread.currentThread().getName();
+            for (int n = 0; n < ITERATIONS; n++) {
+              Plan[] plans = term.plans();
+              for (Plan plan : plans) {
+                ((TestPlan) plan).owner = owner;
+              }
+              Thread.yield();
+              for (Plan plan : plans) {
+                assertThat(((TestPlan) plan).owner).isEqualTo(owner);
+              }
+              assertThat(texts(plans)).isEqualTo("p,default");
+              PlanPool.release(plans);
+            }
+            return null;
+          }
+        });
+  }
+
+  @Test
+  public void memoizedPlansAreConsistentAcrossThreads() throws Exception {
+    final TestTerm<?> term = new TestLanguage().term().modifier("memo");
+
+    runConcurrently(
+        new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int n = 0; n < ITERATIONS; n++) {
+              assertThat(texts(term.memoizedPlans())).isEqualTo("memo");
+              if (n % 50 == 0) {
+                term.invalidatePlans();
+              }
+            }
+            return null;
+          }
+        });
+  }
+
+  /**
+   * Runs the given task on every thread at once, and rethrows the first failure.
+   */
+  private void runConcurrently(final Callable<Void> task) throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(
+          executor.submit(
+              new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                  start.await();
+                  return task.call();
+                }
+              }));
+    }
+
+    start.countDown();
+    for (Future<Void> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+  }
+}
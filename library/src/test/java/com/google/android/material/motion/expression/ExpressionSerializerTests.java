@@ -0,0 +1,287 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.android.material.motion.expression.Modifier.PropertyModifier;
+import com.google.android.material.motion.runtime.Plan;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link ExpressionSerializer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ExpressionSerializerTests {
+
+  private static final String PLAN_ID = "TestPlan";
+
+  @Before
+  public void setUp() {
+    ExpressionSerializer.registerPlanCodec(
+        PLAN_ID,
+        TestPlan.class,
+        new ExpressionSerializer.PlanCodec<TestPlan>() {
+          @Override
+          public void write(TestPlan plan, DataOutput out) throws IOException {
+            out.writeFloat(plan.value);
+            out.writeLong(plan.duration);
+          }
+
+          @Override
+          public TestPlan read(DataInput in) throws IOException {
+            TestPlan plan = new TestPlan();
+            plan.value = in.readFloat();
+            plan.duration = in.readLong();
+            return plan;
+          }
+        });
+  }
+
+  @Test
+  public void roundTripsARunOfPropertyModifiers() throws IOException {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f));
+
+    Plan[] plans = roundTrip(term.compile()).instantiate();
+
+    assertThat(((TestPlan) plans[0]).value).isEqualTo(2f);
+  }
+
+  @Test
+  public void roundTripsEveryBuiltInPropertyModifier() throws IOException {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))
+            .property(PropertyModifier.addFloat(TestPlan.VALUE, 1f))
+            .property(PropertyModifier.scaleFloat(TestPlan.VALUE, 3f))
+            .property(PropertyModifier.setLong(TestPlan.DURATION, 10L))
+            .property(PropertyModifier.addLong(TestPlan.DURATION, 5L));
+
+    TestPlan plan = (TestPlan) roundTrip(term.compile()).instantiate()[0];
+
+    assertThat(plan.value).isEqualTo(9f);
+    assertThat(plan.duration).isEqualTo(15L);
+  }
+
+  @Test
+  public void roundTripsASinglePropertyModifierOfEachTerm() throws IOException {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setLong(TestPlan.DURATION, 10L))
+            .and.term()
+            .property(PropertyModifier.setLong(TestPlan.DURATION, 20L));
+
+    Plan[] plans = roundTrip(term.compile()).instantiate();
+
+    assertThat(((TestPlan) plans[0]).duration).isEqualTo(10L);
+    assertThat(((TestPlan) plans[1]).duration).isEqualTo(20L);
+  }
+
+  @Test
+  public void readsAHandWrittenFile() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 1, false, 1);
+    writeSetFloat(out);
+
+    CompiledExpression expression =
+        ExpressionSerializer.read(ByteBuffer.wrap(bytes.toByteArray())).get("expression");
+
+    assertThat(((TestPlan) expression.instantiate()[0]).value).isEqualTo(1f);
+  }
+
+  @Test
+  public void rejectsANegativeTemplateCount() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    out.writeInt(-1);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsATemplateCountBeyondTheRemainingBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    out.writeInt(Integer.MAX_VALUE);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsAStageCountBeyondTheRemainingBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    out.writeInt(0);
+    out.writeInt(1000);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsAStageBeyondTheTemplates() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 2, false, 1);
+    writeSetFloat(out);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsAStageThatEndsBeforeItStarts() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 1, 0, false, 1);
+    writeSetFloat(out);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsAFusedModifierCountBeyondTheRemainingBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 1, true, 1000);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsAValueCountBeyondTheRemainingBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 1, false, 1);
+    out.writeUTF("PropertyModifier.setFloat");
+    out.writeInt(1000);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsValuesOfTheWrongType() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 1, false, 1);
+    out.writeUTF("PropertyModifier.setFloat");
+    out.writeInt(2);
+    out.writeByte(6); // A String instead of the int property.
+    out.writeUTF("value");
+    out.writeByte(4); // A float.
+    out.writeFloat(1f);
+
+    assertMalformed(bytes);
+  }
+
+  @Test
+  public void rejectsATruncatedFile() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = header(bytes);
+    writeTemplate(out);
+    out.writeInt(1);
+    writeStage(out, 0, 1, false, 1);
+    out.writeUTF("PropertyModifier.setFloat");
+
+    assertMalformed(bytes);
+  }
+
+  private static CompiledExpression roundTrip(CompiledExpression expression) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ExpressionSerializer.write(
+        Collections.singletonMap("expression", expression), new DataOutputStream(bytes));
+    Map<String, CompiledExpression> expressions =
+        ExpressionSerializer.read(ByteBuffer.wrap(bytes.toByteArray()));
+    return expressions.get("expression");
+  }
+
+  /**
+   * Writes the header of a file holding a single expression, up to its template count.
+   */
+  private static DataOutputStream header(ByteArrayOutputStream bytes) throws IOException {
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(ExpressionSerializer.MAGIC);
+    out.writeInt(ExpressionSerializer.VERSION);
+    out.writeInt(1);
+    out.writeUTF("expression");
+    return out;
+  }
+
+  private static void writeTemplate(DataOutputStream out) throws IOException {
+    out.writeInt(1);
+    out.writeUTF(PLAN_ID);
+    out.writeFloat(0f);
+    out.writeLong(0L);
+  }
+
+  private static void writeStage(
+      DataOutputStream out, int from, int to, boolean fused, int modifierCount)
+      throws IOException {
+    out.writeInt(from);
+    out.writeInt(to);
+    out.writeBoolean(fused);
+    out.writeInt(modifierCount);
+  }
+
+  private static void writeSetFloat(DataOutputStream out) throws IOException {
+    out.writeUTF("PropertyModifier.setFloat");
+    out.writeInt(2);
+    out.writeByte(2); // An int.
+    out.writeInt(TestPlan.VALUE);
+    out.writeByte(4); // A float.
+    out.writeFloat(1f);
+  }
+
+  private static void assertMalformed(ByteArrayOutputStream bytes) {
+    try {
+      ExpressionSerializer.read(ByteBuffer.wrap(bytes.toByteArray()));
+      fail("Expected an IOException");
+    } catch (IOException expected) {
+      // The file is malformed.
+    }
+  }
+}
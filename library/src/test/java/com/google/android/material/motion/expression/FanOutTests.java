@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link Term#plans(Arguments, int, Modifier.IndexedModifier, PlanBuffer)}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FanOutTests {
+
+  @Test
+  public void appendsOneSetOfPlansPerTarget() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a").and.term().modifier("b");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(null, 3, null, buffer);
+
+    assertThat(buffer.size()).isEqualTo(6);
+    assertThat(texts(buffer.get(0), buffer.get(1))).isEqualTo("a,b");
+    assertThat(texts(buffer.get(2), buffer.get(3))).isEqualTo("a,b");
+    assertThat(texts(buffer.get(4), buffer.get(5))).isEqualTo("a,b");
+  }
+
+  @Test
+  public void evaluatesTheChainOnce() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a").modifier("b");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(null, 4, null, buffer);
+
+    for (int i = 0; i < buffer.size(); i++) {
+      assertThat(((TestPlan) buffer.get(i)).modifications).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void everyTargetOwnsItsPlans() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(null, 2, null, buffer);
+    ((TestPlan) buffer.get(1)).text = "changed";
+
+    assertThat(buffer.get(1)).isNotSameAs(buffer.get(0));
+    assertThat(((TestPlan) buffer.get(0)).text).isEqualTo("a");
+    assertThat(texts(term.plans())).isEqualTo("a");
+  }
+
+  @Test
+  public void indexedModifierSeesTheIndexOfEachTarget() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a").and.term().modifier("b");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(
+        null,
+        3,
+        new Modifier.IndexedModifier() {
+          @Override
+          public void modify(Plan plan, int targetIndex, int targetCount) {
+            ((TestPlan) plan).text += targetIndex + "/" + targetCount;
+          }
+        },
+        buffer);
+
+    assertThat(texts(buffer.get(0), buffer.get(1))).isEqualTo("a0/3,b0/3");
+    assertThat(texts(buffer.get(2), buffer.get(3))).isEqualTo("a1/3,b1/3");
+    assertThat(texts(buffer.get(4), buffer.get(5))).isEqualTo("a2/3,b2/3");
+  }
+
+  @Test
+  public void appendsAfterTheExistingContentsOfTheBuffer() {
+    PlanBuffer buffer = new PlanBuffer();
+    new TestLanguage().term().modifier("first").plans(null, buffer);
+
+    new TestLanguage().term().modifier("a").plans(null, 2, null, buffer);
+
+    assertThat(buffer.size()).isEqualTo(3);
+    assertThat(texts(buffer.get(0), buffer.get(1), buffer.get(2))).isEqualTo("first,a,a");
+  }
+
+  @Test
+  public void appendsNothingForNoTargets() {
+    PlanBuffer buffer = new PlanBuffer();
+
+    new TestLanguage().term().modifier("a").plans(null, 0, null, buffer);
+
+    assertThat(buffer.size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.expression.Initializer.SimpleInitializer;
+import com.google.android.material.motion.runtime.Plan;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for the fusion of consecutive per-Plan {@link Modifier Modifiers} and
+ * {@link Initializer.SimpleInitializer SimpleInitializers}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FusionTests {
+
+  @Test
+  public void fusedModifiersRunInOrder() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a").modifier("b").modifier("c");
+
+    Plan[] plans = term.plans();
+
+    assertThat(texts(plans)).isEqualTo("c");
+    assertThat(((TestPlan) plans[0]).modifications).isEqualTo(3);
+  }
+
+  @Test
+  public void fusedModifiersModifyEveryPlan() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term(null, new TestPlan(), new TestPlan(), new TestPlan())
+            .modifier("a")
+            .modifier("b");
+
+    assertThat(texts(term.plans())).isEqualTo("b,b,b");
+  }
+
+  @Test
+  public void parameterizedModifiersFuseWithSimpleModifiers() {
+    Parameter<String> text = new Parameter<>("text", "default");
+    TestTerm<?> term = new TestLanguage().term().modifier("a").text(text).modifier("b").text(text);
+
+    assertThat(texts(term.plans())).isEqualTo("default");
+    assertThat(texts(term.plans(new Arguments().set(text, "bound")))).isEqualTo("bound");
+  }
+
+  @Test
+  public void appendingToFusedRunLeavesBranchesUntouched() {
+    TestTerm<?> base = new TestLanguage().term().modifier("a").modifier("b");
+    TestTerm<?> left = base.modifier("left");
+    TestTerm<?> right = base.modifier("right");
+
+    assertThat(texts(base.plans())).isEqualTo("b");
+    assertThat(texts(left.plans())).isEqualTo("left");
+    assertThat(texts(right.plans())).isEqualTo("right");
+  }
+
+  @Test
+  public void initializerChainRunsInOrder() {
+    Initializer subclass =
+        new SimpleInitializer(null) {
+          @Override
+          protected void initialize(Plan plan) {
+            ((TestPlan) plan).text += ",subclass";
+          }
+        };
+    Initializer middle =
+        new Initializer(subclass) {
+          @Override
+          protected void initialize(Plan[] plans) {
+            for (Plan plan : plans) {
+              ((TestPlan) plan).text += ",middle";
+            }
+          }
+        };
+    Initializer base =
+        new SimpleInitializer(middle) {
+          @Override
+          protected void initialize(Plan plan) {
+            ((TestPlan) plan).text = "base";
+          }
+        };
+
+    TestTerm<?> term = new TestLanguage().term(base, new TestPlan(), new TestPlan());
+
+    assertThat(texts(term.plans())).isEqualTo("base,middle,subclass,base,middle,subclass");
+  }
+}
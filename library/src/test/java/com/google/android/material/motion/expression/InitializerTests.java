@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.expression.Initializer.SimpleInitializer;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for running an {@link Initializer} and its subclass Initializers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class InitializerTests {
+
+  private final List<String> log = new ArrayList<>();
+
+  @Test
+  public void runsSubclassInitializersAfterTheirSuperclassInitializer() {
+    Initializer initializer = simple("a", simple("b", simple("c", null)));
+
+    Initializer.initializeAll(initializer.chain(), plans(1));
+
+    assertThat(log).containsExactly("a0", "b0", "c0").inOrder();
+  }
+
+  @Test
+  public void chainListsTheInitializerFollowedByItsSubclassInitializers() {
+    Initializer c = simple("c", null);
+    Initializer b = whole("b", c);
+    Initializer a = simple("a", b);
+
+    assertThat(a.chain()).asList().containsExactly(a, b, c).inOrder();
+  }
+
+  @Test
+  public void fusesConsecutiveSimpleInitializersOverEachPlan() {
+    Initializer initializer = simple("a", simple("b", null));
+
+    Initializer.initializeAll(initializer.chain(), plans(2));
+
+    assertThat(log).containsExactly("a0", "b0", "a1", "b1").inOrder();
+  }
+
+  @Test
+  public void initializerOfTheWholeWorkingSetSeparatesFusedRuns() {
+    Initializer initializer = simple("a", whole("w", simple("b", simple("c", null))));
+
+    Initializer.initializeAll(initializer.chain(), plans(2));
+
+    assertThat(log).containsExactly("a0", "a1", "w0", "w1", "b0", "c0", "b1", "c1").inOrder();
+  }
+
+  @Test
+  public void sharedChainRunsTheSameWayEveryTime() {
+    Initializer[] chain = simple("a", whole("w", simple("b", null))).chain();
+
+    Initializer.initializeAll(chain, plans(1));
+    Initializer.initializeAll(chain, plans(1));
+
+    assertThat(log).containsExactly("a0", "w0", "b0", "a0", "w0", "b0").inOrder();
+  }
+
+  /**
+   * @return An Initializer that logs its name and the index of each Plan it initializes.
+   */
+  private Initializer simple(final String name, @Nullable Initializer subclassInitializer) {
+    return new SimpleInitializer(subclassInitializer) {
+      @Override
+      protected void initialize(Plan plan) {
+        log.add(name + ((TestPlan) plan).owner);
+      }
+    };
+  }
+
+  /**
+   * @return An Initializer of the whole working set, which logs its name and the index of each
+   *     Plan it initializes.
+   */
+  private Initializer whole(final String name, @Nullable Initializer subclassInitializer) {
+    return new Initializer(subclassInitializer) {
+      @Override
+      protected void initialize(Plan[] plans) {
+        for (Plan plan : plans) {
+          log.add(name + ((TestPlan) plan).owner);
+        }
+      }
+    };
+  }
+
+  private static Plan[] plans(int count) {
+    Plan[] plans = new Plan[count];
+    for (int i = 0; i < count; i++) {
+      TestPlan plan = new TestPlan();
+      plan.owner = String.valueOf(i);
+      plans[i] = plan;
+    }
+    return plans;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.expression.TestTerm.TextInitializer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link InternTable}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class InternTableTests {
+
+  @Test
+  public void structurallyIdenticalChainsShareACanonicalTerm() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> first = chain("a", "b");
+    TestTerm<?> second = chain("a", "b");
+
+    assertThat(table.intern(first)).isSameAs(first);
+    assertThat(table.intern(second)).isSameAs(first);
+    assertThat(table.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void chainsWithDifferentModifierValuesAreNotShared() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> first = chain("a", "b");
+    TestTerm<?> second = chain("a", "c");
+
+    table.intern(first);
+
+    assertThat(table.intern(second)).isSameAs(second);
+    assertThat(table.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void modifiersWithoutValuesAreOnlyEqualToThemselves() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> first = new TestLanguage().structuralTerm().modifier("a");
+    TestTerm<?> second = new TestLanguage().structuralTerm().modifier("a");
+
+    table.intern(first);
+
+    assertThat(table.intern(second)).isSameAs(second);
+  }
+
+  @Test
+  public void rootsWhoseInitializerDoesNotDetermineThePlansAreNotShared() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> first = root(false).setText("a");
+    TestTerm<?> second = root(false).setText("a");
+
+    table.intern(first);
+
+    assertThat(table.intern(second)).isSameAs(second);
+  }
+
+  @Test
+  public void preconfiguredPlansAreNotSharedWithoutOptingIn() {
+    InternTable table = new InternTable(4);
+    TestPlan configured = new TestPlan();
+    configured.owner = "configured";
+    TestTerm<?> first =
+        new TestLanguage().term(new TextInitializer("default", false), new TestPlan());
+    TestTerm<?> second = new TestLanguage().term(new TextInitializer("default", false), configured);
+
+    table.intern(first);
+
+    assertThat(table.intern(second)).isSameAs(second);
+    assertThat(((TestPlan) table.intern(second).plans()[0]).owner).isEqualTo("configured");
+  }
+
+  @Test
+  public void branchesOfTheSameRootAreSharedWithoutOptingIn() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> root = root(false);
+    TestTerm<?> first = root.setText("a");
+    TestTerm<?> second = root.setText("a");
+
+    table.intern(first);
+
+    assertThat(table.intern(second)).isSameAs(first);
+  }
+
+  @Test
+  public void canonicalTermGeneratesTheSamePlans() {
+    InternTable table = new InternTable(4);
+    table.intern(chain("a", "b"));
+
+    assertThat(texts(table.intern(chain("a", "b")).plans())).isEqualTo("a,b");
+  }
+
+  @Test
+  public void evictsTheLeastRecentlyUsedTerm() {
+    InternTable table = new InternTable(2);
+    TestTerm<?> a = chain("a", "a");
+    TestTerm<?> b = chain("b", "b");
+    TestTerm<?> c = chain("c", "c");
+
+    table.intern(a);
+    table.intern(b);
+    table.intern(chain("a", "a"));
+    table.intern(c);
+
+    assertThat(table.size()).isEqualTo(2);
+    assertThat(table.intern(chain("a", "a"))).isSameAs(a);
+    assertThat(table.intern(chain("b", "b"))).isNotSameAs(b);
+  }
+
+  @Test
+  public void clearRemovesEveryTerm() {
+    InternTable table = new InternTable(4);
+    TestTerm<?> first = chain("a", "b");
+    table.intern(first);
+
+    table.clear();
+
+    assertThat(table.size()).isEqualTo(0);
+    assertThat(table.intern(chain("a", "b"))).isNotSameAs(first);
+  }
+
+  private static TestTerm<?> root(boolean determinesPlans) {
+    return new TestLanguage().term(new TextInitializer("default", determinesPlans), new TestPlan());
+  }
+
+  /**
+   * @return A chain of two structural Terms, whose texts are set to the given texts.
+   */
+  private static TestTerm<?> chain(String first, String second) {
+    return new TestLanguage().structuralTerm().setText(first).and.structuralTerm().setText(second);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link Term#lazyPlans(Arguments)}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LazyPlansTests {
+
+  @Test
+  public void yieldsThePlansInChainOrder() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term().modifier("a")
+            .and.term((Initializer) null)
+            .and.term().modifier("b");
+
+    assertThat(texts(collect(term.lazyPlans(null)))).isEqualTo("a,b");
+    assertThat(texts(collect(term.lazyPlans(null)))).isEqualTo(texts(term.plans()));
+  }
+
+  @Test
+  public void evaluatesATermOnlyOnceTheIteratorReachesIt() {
+    AtomicInteger initializations = new AtomicInteger();
+    TestTerm<?> term = new TestLanguage().term().modifier("a").and.term(initializations);
+
+    Iterator<Plan> iterator = term.lazyPlans(null).iterator();
+    Plan first = iterator.next();
+
+    assertThat(((TestPlan) first).text).isEqualTo("a");
+    assertThat(initializations.get()).isEqualTo(0);
+
+    assertThat(((TestPlan) iterator.next()).text).isEqualTo("default");
+    assertThat(initializations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void everyIteratorEvaluatesTheChainAgain() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+    Iterable<Plan> plans = term.lazyPlans(null);
+
+    Plan first = plans.iterator().next();
+    Plan second = plans.iterator().next();
+
+    assertThat(second).isNotSameAs(first);
+  }
+
+  @Test
+  public void bindsArguments() {
+    Parameter<String> text = new Parameter<>("text", "default");
+    TestTerm<?> term = new TestLanguage().term().text(text);
+
+    Plan plan = term.lazyPlans(new Arguments().set(text, "bound")).iterator().next();
+
+    assertThat(((TestPlan) plan).text).isEqualTo("bound");
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void nextThrowsOnceExhausted() {
+    Iterator<Plan> iterator = new TestLanguage().term().lazyPlans(null).iterator();
+    iterator.next();
+
+    iterator.next();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void removeIsUnsupported() {
+    Iterator<Plan> iterator = new TestLanguage().term().lazyPlans(null).iterator();
+    iterator.next();
+
+    iterator.remove();
+  }
+
+  private static Plan[] collect(Iterable<Plan> plans) {
+    List<Plan> list = new ArrayList<>();
+    for (Plan plan : plans) {
+      list.add(plan);
+    }
+    return list.toArray(new Plan[list.size()]);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link Term#memoizedPlans()}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MemoizationTests {
+
+  @Test
+  public void memoizedPlansAreComputedOnce() {
+    AtomicInteger initializations = new AtomicInteger();
+    TestTerm<?> term = new TestLanguage().term(initializations).modifier("a");
+
+    Plan[] first = term.memoizedPlans();
+    Plan[] second = term.memoizedPlans();
+
+    assertThat(texts(first)).isEqualTo("a");
+    assertThat(second[0]).isSameAs(first[0]);
+    assertThat(((TestPlan) second[0]).modifications).isEqualTo(1);
+    assertThat(initializations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void memoizedPlansReturnsANewArrayEveryCall() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+
+    Plan[] first = term.memoizedPlans();
+    first[0] = null;
+
+    assertThat(term.memoizedPlans()[0]).isNotNull();
+  }
+
+  @Test
+  public void invalidatePlansComputesThemAgain() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+    Plan[] first = term.memoizedPlans();
+
+    term.invalidatePlans();
+    Plan[] second = term.memoizedPlans();
+
+    assertThat(second[0]).isNotSameAs(first[0]);
+    assertThat(texts(second)).isEqualTo("a");
+  }
+
+  @Test
+  public void memoizedPlansMatchPlans() {
+    TestTerm<?> term =
+        new TestLanguage().term().modifier("a").and.term().and.term().modifier("c");
+
+    assertThat(texts(term.memoizedPlans())).isEqualTo(texts(term.plans()));
+  }
+
+  @Test
+  public void extendingAMemoizedChainEvaluatesOnlyTheNewTerms() {
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+    TestTerm<?> head = new TestLanguage().term(first).modifier("a");
+    Plan[] prefix = head.memoizedPlans();
+
+    TestTerm<?> tail = head.and.term((Initializer) null).and.term(second).modifier("b");
+    Plan[] plans = tail.memoizedPlans();
+
+    assertThat(texts(plans)).isEqualTo("a,b");
+    assertThat(plans[0]).isSameAs(prefix[0]);
+    assertThat(((TestPlan) plans[0]).modifications).isEqualTo(1);
+    assertThat(first.get()).isEqualTo(1);
+    assertThat(second.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void memoizingATailMemoizesEveryTermBeforeIt() {
+    AtomicInteger initializations = new AtomicInteger();
+    TestTerm<?> head = new TestLanguage().term(initializations).modifier("a");
+    TestTerm<?> tail = head.and.term().modifier("b");
+
+    Plan[] plans = tail.memoizedPlans();
+    Plan[] prefix = head.memoizedPlans();
+
+    assertThat(texts(prefix)).isEqualTo("a");
+    assertThat(prefix[0]).isSameAs(plans[0]);
+    assertThat(initializations.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void invalidatingAPreviousTermKeepsTheMemoizedPlansOfItsExtensions() {
+    TestTerm<?> head = new TestLanguage().term().modifier("a");
+    TestTerm<?> tail = head.and.term().modifier("b");
+    Plan[] plans = tail.memoizedPlans();
+
+    head.invalidatePlans();
+
+    assertThat(tail.memoizedPlans()[0]).isSameAs(plans[0]);
+    assertThat(head.memoizedPlans()[0]).isNotSameAs(plans[0]);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Tests for {@link ParallelEvaluator}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ParallelEvaluatorTests {
+
+  private static final Executor DIRECT =
+      new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          command.run();
+        }
+      };
+
+  private static final Executor REJECTING =
+      new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          throw new RejectedExecutionException();
+        }
+      };
+
+  private final AtomicReference<Plan[][]> plans = new AtomicReference<>();
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+  @Test
+  public void deliversThePlansOfEachTermAtItsIndex() {
+    evaluate(DIRECT, chain());
+
+    assertThat(failure.get()).isNull();
+    assertThat(plans.get()).hasLength(2);
+    assertThat(texts(plans.get()[0])).isEqualTo("a");
+    assertThat(texts(plans.get()[1])).isEqualTo("a,b");
+  }
+
+  @Test
+  public void evaluatesRejectedTermsOnTheCallingThread() {
+    evaluate(REJECTING, chain());
+
+    assertThat(plans.get()).isNotNull();
+    assertThat(texts(plans.get()[0])).isEqualTo("a");
+    assertThat(texts(plans.get()[1])).isEqualTo("a,b");
+  }
+
+  @Test
+  public void evaluatesOnTheCallingThreadOnceTheExecutorIsShutDown() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+
+    evaluate(executor, chain());
+
+    assertThat(plans.get()).isNotNull();
+    assertThat(texts(plans.get()[1])).isEqualTo("a,b");
+  }
+
+  @Test
+  public void deliversTheFailureOfATermToTheCallback() {
+    final IllegalStateException exception = new IllegalStateException();
+    TestTerm<?> failing =
+        new TestLanguage()
+            .term(
+                new Initializer.SimpleInitializer(null) {
+                  @Override
+                  protected void initialize(Plan plan) {
+                    throw exception;
+                  }
+                },
+                new TestPlan());
+
+    evaluate(DIRECT, new TestLanguage().term(), failing);
+
+    assertThat(plans.get()).isNull();
+    assertThat(failure.get()).isSameAs(exception);
+  }
+
+  /**
+   * Returns a Term and the Term chained after it.
+   */
+  private static Term<?, ?>[] chain() {
+    TestTerm<?> first = new TestLanguage().term().modifier("a");
+    TestTerm<?> second = first.and.term().modifier("b");
+    return new Term<?, ?>[] {first, second};
+  }
+
+  private void evaluate(Executor executor, Term<?, ?>... terms) {
+    new ParallelEvaluator(executor, new Handler(Looper.getMainLooper()))
+        .evaluate(
+            terms,
+            null,
+            new ParallelEvaluator.Callback() {
+              @Override
+              public void onPlansEvaluated(Plan[][] result) {
+                plans.set(result);
+              }
+
+              @Override
+              public void onEvaluationFailed(RuntimeException e) {
+                failure.set(e);
+              }
+            });
+    ShadowLooper.runUiThreadTasks();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ComponentCallbacks2;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link PlanCache}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PlanCacheTests {
+
+  @Test
+  public void structurallyIdenticalChainHitsTheCache() {
+    PlanCache cache = new PlanCache(4);
+
+    Plan[] first = cache.plans(chain("a"));
+    Plan[] second = cache.plans(chain("a"));
+
+    assertThat(texts(second)).isEqualTo("default,a");
+    assertThat(cache.getMissCount()).isEqualTo(1L);
+    assertThat(cache.getHitCount()).isEqualTo(1L);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(second[1]).isNotSameAs(first[1]);
+  }
+
+  @Test
+  public void hitDoesNotEvaluateTheTerm() {
+    PlanCache cache = new PlanCache(4);
+    cache.plans(chain("a"));
+    AtomicInteger initializations = new AtomicInteger();
+    TestTerm<?> term =
+        new TestLanguage()
+            .structuralTerm(initializations)
+            .and.structuralTerm(initializations)
+            .setText("a");
+
+    cache.plans(term);
+
+    assertThat(cache.getHitCount()).isEqualTo(1L);
+    assertThat(initializations.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void returnedPlansAreOwnedByTheCaller() {
+    PlanCache cache = new PlanCache(4);
+    ((TestPlan) cache.plans(chain("a"))[1]).text = "changed";
+
+    assertThat(texts(cache.plans(chain("a")))).isEqualTo("default,a");
+  }
+
+  @Test
+  public void chainWithoutValueEqualityAlwaysMisses() {
+    PlanCache cache = new PlanCache(4);
+
+    cache.plans(new TestLanguage().structuralTerm().modifier("a"));
+    cache.plans(new TestLanguage().structuralTerm().modifier("a"));
+
+    assertThat(cache.getHitCount()).isEqualTo(0L);
+    assertThat(cache.getMissCount()).isEqualTo(2L);
+  }
+
+  @Test
+  public void chainWithoutStructuralRootsBypassesTheCache() {
+    PlanCache cache = new PlanCache(4);
+
+    for (int i = 0; i < 3; i++) {
+      Plan[] plans = cache.plans(new TestLanguage().term().setText("a"));
+      assertThat(texts(plans)).isEqualTo("a");
+    }
+
+    assertThat(cache.getHitCount()).isEqualTo(0L);
+    assertThat(cache.getMissCount()).isEqualTo(0L);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void chainWithOneNonStructuralRootBypassesTheCache() {
+    PlanCache cache = new PlanCache(4);
+
+    cache.plans(new TestLanguage().structuralTerm().and.term().setText("a"));
+
+    assertThat(cache.getMissCount()).isEqualTo(0L);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void evictsTheLeastRecentlyUsedTemplates() {
+    PlanCache cache = new PlanCache(2);
+
+    cache.plans(chain("a"));
+    cache.plans(chain("b"));
+    cache.plans(chain("a"));
+    cache.plans(chain("c"));
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(1L);
+
+    cache.plans(chain("a"));
+    assertThat(cache.getHitCount()).isEqualTo(2L);
+  }
+
+  @Test
+  public void moderateMemoryPressureHalvesTheCache() {
+    PlanCache cache = filledCache(4);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(2L);
+  }
+
+  @Test
+  public void backgroundClearsTheCache() {
+    PlanCache cache = filledCache(4);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void criticalMemoryPressureClearsTheCache() {
+    PlanCache cache = filledCache(4);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void lowMemoryClearsTheCache() {
+    PlanCache cache = filledCache(4);
+
+    cache.onLowMemory();
+
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  private static PlanCache filledCache(int size) {
+    PlanCache cache = new PlanCache(size);
+    for (int i = 0; i < size; i++) {
+      cache.plans(chain(String.valueOf(i)));
+    }
+    return cache;
+  }
+
+  /**
+   * @return A chain of two structural Terms, the second of which sets its text to the given text.
+   */
+  private static TestTerm<?> chain(String text) {
+    return new TestLanguage().structuralTerm().and.structuralTerm().setText(text);
+  }
+}
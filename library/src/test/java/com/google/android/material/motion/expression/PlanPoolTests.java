@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.runtime.Plan;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link PlanPool}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PlanPoolTests {
+
+  @After
+  public void tearDown() {
+    PlanPool.install(null);
+  }
+
+  @Test
+  public void releasedPlansAreReused() {
+    PlanPool.install(new PlanPool(4));
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+
+    Plan[] first = term.plans();
+    PlanPool.release(first);
+    Plan[] second = term.plans();
+
+    assertThat(second[0]).isSameAs(first[0]);
+    assertThat(texts(second)).isEqualTo("a");
+  }
+
+  @Test
+  public void releasingABufferReusesItsPlansAndClearsIt() {
+    PlanPool.install(new PlanPool(4));
+    TestTerm<?> term = new TestLanguage().term().modifier("a").and.term().modifier("b");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(null, buffer);
+    Plan first = buffer.get(0);
+    Plan second = buffer.get(1);
+    PlanPool.release(buffer);
+
+    assertThat(buffer.size()).isEqualTo(0);
+
+    term.plans(null, buffer);
+
+    assertThat(buffer.size()).isEqualTo(2);
+    assertThat(Arrays.asList(buffer.get(0), buffer.get(1))).containsExactly(first, second);
+    assertThat(texts(buffer.get(0), buffer.get(1))).isEqualTo("a,b");
+  }
+
+  @Test
+  public void releaseWithoutAnInstalledPoolStillClearsTheBuffer() {
+    TestTerm<?> term = new TestLanguage().term().modifier("a");
+    PlanBuffer buffer = new PlanBuffer();
+
+    term.plans(null, buffer);
+    PlanPool.release(buffer);
+
+    assertThat(buffer.size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.expression.Initializer.PropertyInitializer;
+import com.google.android.material.motion.expression.Modifier.PropertyModifier;
+import com.google.android.material.motion.runtime.Plan;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for {@link PropertyStore}, and the {@link PropertyModifier PropertyModifiers} and
+ * {@link PropertyInitializer PropertyInitializers} that use it.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PropertyStoreTests {
+
+  @Test
+  public void gatherReadsThePropertiesOfEveryPlan() {
+    PropertyStore store = PropertyStore.gather(plans(3));
+
+    assertThat(store.size()).isEqualTo(3);
+    for (int i = 0; i < 3; i++) {
+      assertThat(store.getFloat(TestPlan.VALUE, i)).isEqualTo((float) i);
+      assertThat(store.getLong(TestPlan.DURATION, i)).isEqualTo(10L * i);
+    }
+  }
+
+  @Test
+  public void scatterWritesThePropertiesBack() {
+    Plan[] plans = plans(2);
+    PropertyStore store = PropertyStore.gather(plans);
+
+    store.setFloat(TestPlan.VALUE, 1, 5f);
+    store.setLong(TestPlan.DURATION, 0, 7L);
+    store.scatter(plans);
+
+    assertThat(((TestPlan) plans[0]).duration).isEqualTo(7L);
+    assertThat(((TestPlan) plans[0]).value).isEqualTo(0f);
+    assertThat(((TestPlan) plans[1]).value).isEqualTo(5f);
+    assertThat(((TestPlan) plans[1]).duration).isEqualTo(10L);
+  }
+
+  @Test
+  public void storeIsReusedAndGrowsWithTheWorkingSet() {
+    PropertyStore small = PropertyStore.gather(plans(2));
+    PropertyStore large = PropertyStore.gather(plans(40));
+
+    assertThat(large).isSameAs(small);
+    assertThat(large.size()).isEqualTo(40);
+    assertThat(large.floats(TestPlan.VALUE).length).isAtLeast(40);
+    assertThat(large.getFloat(TestPlan.VALUE, 39)).isEqualTo(39f);
+    assertThat(large.getLong(TestPlan.DURATION, 39)).isEqualTo(390L);
+  }
+
+  @Test
+  public void floatModifiersApplyInOrder() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))
+            .property(PropertyModifier.addFloat(TestPlan.VALUE, 1f))
+            .property(PropertyModifier.scaleFloat(TestPlan.VALUE, 3f));
+
+    assertThat(((TestPlan) term.plans()[0]).value).isEqualTo(9f);
+  }
+
+  @Test
+  public void longModifiersApplyInOrder() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setLong(TestPlan.DURATION, 10L))
+            .property(PropertyModifier.addLong(TestPlan.DURATION, 5L));
+
+    assertThat(((TestPlan) term.plans()[0]).duration).isEqualTo(15L);
+  }
+
+  @Test
+  public void propertyModifiersSeparatedByAnotherModifierStillApplyInOrder() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))
+            .modifier("a")
+            .property(PropertyModifier.scaleFloat(TestPlan.VALUE, 3f));
+
+    TestPlan plan = (TestPlan) term.plans()[0];
+    assertThat(plan.value).isEqualTo(6f);
+    assertThat(plan.text).isEqualTo("a");
+  }
+
+  @Test
+  public void propertyModifiersWithEqualValuesAreEqual() {
+    assertThat(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+        .isEqualTo(PropertyModifier.setFloat(TestPlan.VALUE, 1f));
+    assertThat(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+        .isNotEqualTo(PropertyModifier.setFloat(TestPlan.VALUE, 2f));
+    assertThat(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+        .isNotEqualTo(PropertyModifier.addFloat(TestPlan.VALUE, 1f));
+  }
+
+  @Test
+  public void propertyInitializerInitializesEveryPlan() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .term(
+                new PropertyInitializer(null) {
+                  @Override
+                  protected void initialize(PropertyStore store) {
+                    for (int i = 0; i < store.size(); i++) {
+                      store.setLong(TestPlan.DURATION, i, 100L + i);
+                    }
+                  }
+                },
+                new TestPlan(),
+                new TestPlan());
+
+    Plan[] plans = term.plans();
+
+    assertThat(((TestPlan) plans[0]).duration).isEqualTo(100L);
+    assertThat(((TestPlan) plans[1]).duration).isEqualTo(101L);
+  }
+
+  /**
+   * @return Plans whose value is their index, and whose duration is ten times their index.
+   */
+  private static Plan[] plans(int count) {
+    Plan[] plans = new Plan[count];
+    for (int i = 0; i < count; i++) {
+      TestPlan plan = new TestPlan();
+      plan.value = i;
+      plan.duration = 10L * i;
+      plans[i] = plan;
+    }
+    return plans;
+  }
+}
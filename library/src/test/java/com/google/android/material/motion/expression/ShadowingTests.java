@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import static com.google.android.material.motion.expression.TestPlan.texts;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.motion.expression.Modifier.PropertyModifier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Tests for dropping {@link Modifier Modifiers} whose
+ * {@link Modifier#overwrittenProperties() overwritten properties} are all overwritten by later
+ * Modifiers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ShadowingTests {
+
+  @Test
+  public void shadowedModifierIsDropped() {
+    TestPlan plan = plan(new TestLanguage().term().overwriteText("a").overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.modifications).isEqualTo(1);
+  }
+
+  @Test
+  public void modifierShadowedByTheUnionOfLaterModifiersIsDropped() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .overwriteTextAndOwner("a", "x")
+                .overwriteText("b")
+                .overwriteOwner("y"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.owner).isEqualTo("y");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void shadowedModifierInTheMiddleOfTheRunIsDropped() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .overwriteText("a")
+                .overwriteOwner("x")
+                .overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.owner).isEqualTo("x");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void modifiersKeptAfterADropCanStillBeShadowed() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .overwriteTextAndOwner("a", "x")
+                .overwriteText("b")
+                .overwriteOwner("y")
+                .overwriteText("c"));
+
+    assertThat(plan.text).isEqualTo("c");
+    assertThat(plan.owner).isEqualTo("y");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void longAlternatingChainKeepsOnlyTheLastWriters() {
+    TestTerm<?> term = new TestLanguage().term();
+    for (int i = 0; i < 100; i++) {
+      term = term.overwriteText("t" + i).overwriteOwner("o" + i);
+    }
+    TestPlan plan = plan(term);
+
+    assertThat(plan.text).isEqualTo("t99");
+    assertThat(plan.owner).isEqualTo("o99");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void partiallyOverwrittenModifierIsKept() {
+    TestPlan plan =
+        plan(new TestLanguage().term().overwriteTextAndOwner("a", "x").overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.owner).isEqualTo("x");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void modifierWithUnknownPropertiesIsABarrier() {
+    TestPlan plan =
+        plan(new TestLanguage().term().overwriteText("a").modifier("m").overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.modifications).isEqualTo(3);
+  }
+
+  @Test
+  public void modifiersAfterABarrierAreStillDropped() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .modifier("m")
+                .overwriteText("a")
+                .overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void propertyModifierRunIsABarrier() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .overwriteText("a")
+                .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+                .property(PropertyModifier.addFloat(TestPlan.VALUE, 2f))
+                .overwriteText("b"));
+
+    assertThat(plan.text).isEqualTo("b");
+    assertThat(plan.value).isEqualTo(3f);
+    assertThat(plan.modifications).isEqualTo(2);
+  }
+
+  @Test
+  public void setPropertyModifierIsDroppedBySettingTheSameProperty() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .structuralTerm()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f));
+
+    assertThat(plan(term).value).isEqualTo(2f);
+    assertThat(
+            term.sameStructure(
+                new TestLanguage()
+                    .structuralTerm()
+                    .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))))
+        .isTrue();
+  }
+
+  @Test
+  public void setPropertyModifierIsDroppedFromTheMiddleOfARun() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .structuralTerm()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+            .property(PropertyModifier.setLong(TestPlan.DURATION, 5L))
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f));
+
+    assertThat(plan(term).value).isEqualTo(2f);
+    assertThat(plan(term).duration).isEqualTo(5L);
+    assertThat(
+            term.sameStructure(
+                new TestLanguage()
+                    .structuralTerm()
+                    .property(PropertyModifier.setLong(TestPlan.DURATION, 5L))
+                    .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))))
+        .isTrue();
+  }
+
+  @Test
+  public void setPropertyModifierIsDroppedAcrossOtherModifiersThatDeclareTheirProperties() {
+    TestTerm<?> term =
+        new TestLanguage()
+            .structuralTerm()
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+            .overwriteText("a")
+            .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f));
+
+    assertThat(plan(term).value).isEqualTo(2f);
+    assertThat(plan(term).text).isEqualTo("a");
+    assertThat(
+            term.sameStructure(
+                new TestLanguage()
+                    .structuralTerm()
+                    .overwriteText("a")
+                    .property(PropertyModifier.setFloat(TestPlan.VALUE, 2f))))
+        .isTrue();
+  }
+
+  @Test
+  public void floatAndLongPropertiesWithTheSameIndexDoNotShadowEachOther() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+                .property(PropertyModifier.setLong(TestPlan.DURATION, 5L)));
+
+    assertThat(plan.value).isEqualTo(1f);
+    assertThat(plan.duration).isEqualTo(5L);
+  }
+
+  @Test
+  public void setPropertyModifierBeforeAReadIsKept() {
+    TestPlan plan =
+        plan(
+            new TestLanguage()
+                .term()
+                .property(PropertyModifier.setFloat(TestPlan.VALUE, 1f))
+                .property(PropertyModifier.addFloat(TestPlan.VALUE, 2f))
+                .property(PropertyModifier.setLong(TestPlan.DURATION, 5L)));
+
+    assertThat(plan.value).isEqualTo(3f);
+    assertThat(plan.duration).isEqualTo(5L);
+  }
+
+  @Test
+  public void droppingDoesNotAffectTheTermThatIsShadowed() {
+    TestTerm<?> term = new TestLanguage().term().overwriteText("a");
+    TestTerm<?> shadowing = term.overwriteText("b");
+
+    assertThat(texts(term.plans())).isEqualTo("a");
+    assertThat(texts(shadowing.plans())).isEqualTo("b");
+    assertThat(((TestPlan) term.plans()[0]).modifications).isEqualTo(1);
+  }
+
+  private static TestPlan plan(TestTerm<?> term) {
+    return (TestPlan) term.plans()[0];
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Language} for tests, whose {@link TestTerm TestTerms} each define a single
+ * {@link TestPlan}.
+ */
+public final class TestLanguage extends Language<TestLanguage> {
+
+  public TestLanguage() {}
+
+  TestLanguage(Term<?, TestLanguage> previousTerm) {
+    super(previousTerm);
+  }
+
+  /**
+   * @return A Term whose Plan is initialized with the text "default".
+   */
+  public TestTerm<?> term() {
+    return term(new AtomicInteger());
+  }
+
+  /**
+   * @param initializations Incremented every time the Term's Initializer runs.
+   * @return A Term whose Plan is initialized with the text "default".
+   */
+  public TestTerm<?> term(AtomicInteger initializations) {
+    return new TestTerm<>(this, TestTerm.countingInitializer(initializations), new TestPlan());
+  }
+
+  /**
+   * @return A Term whose Plan is initialized with the text "default", and which is structurally
+   *     identical to any other Term created this way.
+   */
+  public TestTerm<?> structuralTerm() {
+    return structuralTerm(new AtomicInteger());
+  }
+
+  /**
+   * @param initializations Incremented every time the Term's Initializer runs.
+   * @return A Term whose Plan is initialized with the text "default", and which is structurally
+   *     identical to any other Term created this way.
+   */
+  public TestTerm<?> structuralTerm(AtomicInteger initializations) {
+    return new TestTerm<>(
+        this, new TestTerm.TextInitializer("default", true, initializations), new TestPlan());
+  }
+
+  /**
+   * @return A Term with the given Initializer and working set.
+   */
+  public TestTerm<?> term(@Nullable Initializer initializer, TestPlan... plans) {
+    return new TestTerm<>(this, initializer, plans);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import com.google.android.material.motion.runtime.Performer;
+import com.google.android.material.motion.runtime.Plan;
+
+/**
+ * A {@link Plan} for tests, which counts the {@link Modifier Modifiers} that ran on it.
+ */
+public final class TestPlan extends Plan<Object>
+    implements PlanPool.Recyclable<TestPlan>, PropertyStore.Storable {
+
+  /**
+   * The index of {@link #value} in a {@link PropertyStore}.
+   */
+  static final int VALUE = 0;
+  /**
+   * The index of {@link #duration} in a {@link PropertyStore}.
+   */
+  static final int DURATION = 0;
+
+  public String text;
+  public String owner;
+  public int modifications;
+  public float value;
+  public long duration;
+
+  @Override
+  public Class<? extends Performer<Object>> getPerformerClass() {
+    return TestPerformer.class;
+  }
+
+  @Override
+  public void copyFrom(TestPlan template) {
+    text = template.text;
+    owner = template.owner;
+    modifications = template.modifications;
+    value = template.value;
+    duration = template.duration;
+  }
+
+  @Override
+  public void writeTo(PropertyStore store, int index) {
+    store.setFloat(VALUE, index, value);
+    store.setLong(DURATION, index, duration);
+  }
+
+  @Override
+  public void readFrom(PropertyStore store, int index) {
+    value = store.getFloat(VALUE, index);
+    duration = store.getLong(DURATION, index);
+  }
+
+  /**
+   * @return The texts of the given {@link TestPlan TestPlans}, separated by commas.
+   */
+  public static String texts(Plan... plans) {
+    StringBuilder builder = new StringBuilder();
+    for (Plan plan : plans) {
+      if (builder.length() > 0) {
+        builder.append(',');
+      }
+      builder.append(((TestPlan) plan).text);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.expression;
+
+import android.support.annotation.Nullable;
+import com.google.android.material.motion.expression.Initializer.SimpleInitializer;
+import com.google.android.material.motion.expression.Modifier.ParameterizedModifier;
+import com.google.android.material.motion.expression.Modifier.SimpleModifier;
+import com.google.android.material.motion.runtime.Plan;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Term} for tests. Every one of its {@link Modifier Modifiers} increments
+ * {@link TestPlan#modifications}, so that tests can tell which Modifiers ran.
+ */
+public final class TestTerm<T extends TestTerm<?>> extends Term<T, TestLanguage> {
+
+  /**
+   * The bit of {@link TestPlan#text} in {@link Modifier#overwrittenProperties()}.
+   */
+  static final long TEXT = 1L;
+  /**
+   * The bit of {@link TestPlan#owner} in {@link Modifier#overwrittenProperties()}.
+   */
+  static final long OWNER = 1L << 1;
+
+  TestTerm(TestLanguage language, @Nullable Initializer initializer, TestPlan... plans) {
+    super(language, initializer, plans);
+  }
+
+  TestTerm(TestLanguage language, Work work) {
+    super(language, work);
+  }
+
+  /**
+   * @return An Initializer that sets the text of each Plan to "default", and increments the given
+   *     counter every time it runs.
+   */
+  static Initializer countingInitializer(final AtomicInteger initializations) {
+    return new SimpleInitializer(null) {
+      @Override
+      protected void initialize(Plan plan) {
+        initializations.incrementAndGet();
+        ((TestPlan) plan).text = "default";
+      }
+    };
+  }
+
+  /**
+   * An {@link Initializer} that sets the text of each Plan, and is equal to any other created with
+   * the same text and opt-in, regardless of its counter.
+   */
+  static final class TextInitializer extends SimpleInitializer {
+
+    private final String text;
+    private final boolean determinesPlans;
+    private final AtomicInteger initializations;
+
+    TextInitializer(String text, boolean determinesPlans) {
+      this(text, determinesPlans, new AtomicInteger());
+    }
+
+    TextInitializer(String text, boolean determinesPlans, AtomicInteger initializations) {
+      super(null, text, determinesPlans);
+      this.text = text;
+      this.determinesPlans = determinesPlans;
+      this.initializations = initializations;
+    }
+
+    @Override
+    protected void initialize(Plan plan) {
+      initializations.incrementAndGet();
+      ((TestPlan) plan).text = text;
+    }
+
+    @Override
+    protected boolean determinesPlans() {
+      return determinesPlans;
+    }
+  }
+
+  /**
+   * Sets the text of each Plan with a {@link Modifier} that is equal to any other created with the
+   * same text.
+   */
+  public T setText(final String text) {
+    return modify(
+        new SimpleModifier(text) {
+          @Override
+          public void modify(Plan plan) {
+            ((TestPlan) plan).text = text;
+            ((TestPlan) plan).modifications++;
+          }
+        });
+  }
+
+  /**
+   * Sets the text of each Plan with a {@link Modifier} that is only equal to itself.
+   */
+  public T modifier(final String text) {
+    return modify(
+        new SimpleModifier() {
+          @Override
+          public void modify(Plan plan) {
+            ((TestPlan) plan).text = text;
+            ((TestPlan) plan).modifications++;
+          }
+        });
+  }
+
+  /**
+   * Overwrites the text of each Plan with a {@link Modifier} that declares it.
+   */
+  public T overwriteText(String text) {
+    return overwrite(TEXT, text, null);
+  }
+
+  /**
+   * Overwrites the owner of each Plan with a {@link Modifier} that declares it.
+   */
+  public T overwriteOwner(String owner) {
+    return overwrite(OWNER, null, owner);
+  }
+
+  /**
+   * Overwrites the text and owner of each Plan with a {@link Modifier} that declares both.
+   */
+  public T overwriteTextAndOwner(String text, String owner) {
+    return overwrite(TEXT | OWNER, text, owner);
+  }
+
+  private T overwrite(final long properties, final String text, final String owner) {
+    return modify(
+        new SimpleModifier(properties, text, owner) {
+          @Override
+          public void modify(Plan plan) {
+            if ((properties & TEXT) != 0) {
+              ((TestPlan) plan).text = text;
+            }
+            if ((properties & OWNER) != 0) {
+              ((TestPlan) plan).owner = owner;
+            }
+            ((TestPlan) plan).modifications++;
+          }
+
+          @Override
+          protected long overwrittenProperties() {
+            return properties;
+          }
+        });
+  }
+
+  /**
+   * Applies the given {@link Modifier.PropertyModifier} to the numeric properties of each Plan.
+   */
+  public T property(Modifier.PropertyModifier modifier) {
+    return modify(modifier);
+  }
+
+  /**
+   * Sets the text of each Plan to the value of the given {@link Parameter}.
+   */
+  public T text(Parameter<String> text) {
+    return modify(
+        new ParameterizedModifier<String>(text) {
+          @Override
+          public void modify(Plan plan, String value) {
+            ((TestPlan) plan).text = value;
+            ((TestPlan) plan).modifications++;
+          }
+        });
+  }
+}
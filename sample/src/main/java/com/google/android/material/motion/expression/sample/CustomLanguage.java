@@ -16,7 +16,6 @@
 
 package com.google.android.material.motion.expression.sample;
 
-import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
 import com.google.android.material.motion.expression.Language;
 import com.google.android.material.motion.expression.Term;
@@ -38,11 +37,11 @@ public final class CustomLanguage extends Language<CustomLanguage> {
   /**
    * Required:
    * This is the chaining constructor for this {@link Language}.
-   * It must be annotate with {@link Keep} and have the same parameter types as the superclass
-   * so this can be invoked via reflection.
+   * It must have the same parameter types as the superclass. It should not be private so that the
+   * factory generated by the expression annotation processor can invoke it. A private chaining
+   * constructor must be annotated with {@link android.support.annotation.Keep}.
    */
-  @Keep
-  private CustomLanguage(@NonNull Term<?, CustomLanguage> previousTerm) {
+  CustomLanguage(@NonNull Term<?, CustomLanguage> previousTerm) {
     super(previousTerm);
   }
 
@@ -18,6 +18,8 @@ package com.google.android.material.motion.expression.sample;
 
 import android.widget.TextView;
 
+import com.google.android.material.motion.expression.PlanPool;
+import com.google.android.material.motion.expression.PlanPool.Recyclable;
 import com.google.android.material.motion.runtime.Performer;
 import com.google.android.material.motion.runtime.Plan;
 
@@ -29,7 +31,7 @@ import com.google.android.material.motion.runtime.Plan;
  * Your custom class may implement any optional Plan APIs by implementing one or more
  * <code>*Plan</code> interfaces.
  */
-public final class CustomPlan extends Plan<TextView> {
+public final class CustomPlan extends Plan<TextView> implements Recyclable<CustomPlan> {
 
   /**
    * Optional:
@@ -45,4 +47,14 @@ public final class CustomPlan extends Plan<TextView> {
   public Class<? extends Performer<TextView>> getPerformerClass() {
     return CustomPerformer.class;
   }
+
+  /**
+   * Optional:
+   * Implement {@link Recyclable} so that an installed {@link PlanPool} can reuse instances of your
+   * {@link Plan}. Every property must be overwritten.
+   */
+  @Override
+  public void copyFrom(CustomPlan template) {
+    text = template.text;
+  }
 }
@@ -16,12 +16,14 @@
 
 package com.google.android.material.motion.expression.sample;
 
-import android.support.annotation.Keep;
+import com.google.android.material.motion.expression.Arguments;
 import com.google.android.material.motion.expression.Initializer;
 import com.google.android.material.motion.expression.Initializer.SimpleInitializer;
 import com.google.android.material.motion.expression.Language;
 import com.google.android.material.motion.expression.Modifier;
+import com.google.android.material.motion.expression.Modifier.ParameterizedModifier;
 import com.google.android.material.motion.expression.Modifier.SimpleModifier;
+import com.google.android.material.motion.expression.Parameter;
 import com.google.android.material.motion.expression.Term;
 import com.google.android.material.motion.expression.Work;
 import com.google.android.material.motion.runtime.Plan;
@@ -41,16 +43,30 @@ import com.google.android.material.motion.runtime.Plan;
  */
 public final class CustomTerm<T extends CustomTerm<?>> extends Term<T, CustomLanguage> {
 
+  /**
+   * Optional:
+   * Bits for each property of your {@link Plan Plans}, which your {@link Modifier Modifiers} can
+   * declare they overwrite. Overwritten Modifiers are never run.
+   */
+  private static final long TEXT = 1L;
+
   /**
    * Required:
    * This is the initializing constructor for this {@link Term}.
    * Your {@link Initializer} must respect your subclass's Initializer, if it exists,
-   * by passing it into the constructor.
+   * by passing it into the constructor. Passing in the values it reads makes it equal to the
+   * Initializers of other instances. Since this Term always passes a new CustomPlan, the
+   * Initializer fully determines its Plans, so identical chains can be interned.
    */
   CustomTerm(CustomLanguage language) {
     super(
         language,
-        new SimpleInitializer(null) {
+        new SimpleInitializer(null, "default") {
+          @Override
+          protected boolean determinesPlans() {
+            return true;
+          }
+
           @Override
           protected void initialize(Plan plan) {
             CustomPlan i = (CustomPlan) plan;
@@ -63,11 +79,11 @@ public final class CustomTerm<T extends CustomTerm<?>> extends Term<T, CustomLan
   /**
    * Required:
    * This is the chaining constructor for this {@link Term}.
-   * It must be annotate with {@link Keep} and have the same parameter types as the superclass
-   * so this can be invoked via reflection.
+   * It must have the same parameter types as the superclass. It should not be private so that the
+   * factory generated by the expression annotation processor can invoke it. A private chaining
+   * constructor must be annotated with {@link android.support.annotation.Keep}.
    */
-  @Keep
-  private CustomTerm(CustomLanguage language, Work work) {
+  CustomTerm(CustomLanguage language, Work work) {
     super(language, work);
   }
 
@@ -75,16 +91,43 @@ public final class CustomTerm<T extends CustomTerm<?>> extends Term<T, CustomLan
    * Optional:
    * One or more public methods for your custom modifiers.
    * The return type must be T to enable chaining.
-   * Your implementation should call {@link #modify(Modifier)}.
+   * Your implementation should call {@link #modify(Modifier)}. Pass the arguments into the
+   * {@link Modifier} so that it is equal to other Modifiers created with the same arguments.
    */
   public T modifier(final String text) {
     return modify(
-        new SimpleModifier() {
+        new SimpleModifier(text) {
           @Override
           public void modify(Plan plan) {
             CustomPlan i = (CustomPlan) plan;
             i.text = text;
           }
+
+          @Override
+          protected long overwrittenProperties() {
+            return TEXT;
+          }
+        });
+  }
+
+  /**
+   * Optional:
+   * A modifier whose value is bound late, when the {@link Plan Plans} are generated with
+   * {@link Term#plans(Arguments)}. This lets the chain be built once and evaluated repeatedly.
+   */
+  public T modifier(Parameter<String> text) {
+    return modify(
+        new ParameterizedModifier<String>(text) {
+          @Override
+          public void modify(Plan plan, String value) {
+            CustomPlan i = (CustomPlan) plan;
+            i.text = value;
+          }
+
+          @Override
+          protected long overwrittenProperties() {
+            return TEXT;
+          }
         });
   }
 }
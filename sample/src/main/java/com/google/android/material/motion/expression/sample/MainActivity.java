@@ -22,9 +22,8 @@ import android.view.View;
 import android.view.View.OnClickListener;
 import android.widget.TextView;
 
-import com.google.android.material.motion.expression.Term;
+import com.google.android.material.motion.expression.PlanBatch;
 import com.google.android.material.motion.runtime.MotionRuntime;
-import com.google.android.material.motion.runtime.Plan;
 
 /**
  * Material Motion Android Expression Sample Activity.
@@ -32,6 +31,7 @@ import com.google.android.material.motion.runtime.Plan;
 public class MainActivity extends AppCompatActivity {
 
   private final MotionRuntime runtime = new MotionRuntime();
+  private final PlanBatch batch = new PlanBatch();
 
   @Override
   protected void onCreate(Bundle savedInstanceState) {
@@ -75,17 +75,13 @@ public class MainActivity extends AppCompatActivity {
     CustomTerm<?> exp5 = exp3.and.term().modifier("qux").and.term().and.term().and.term();
 
     // Can't call plans() on exp1 since it's not a Term.
-    // executeText(exp1, text1); // nothing
-    executeText(exp2, text2); // default
-    executeText(exp3, text3); // foobar
-    executeText(exp4, text4); // baz
-    executeText(exp5, text5); // foobar, qux, default, default, default
-  }
-
-  private void executeText(Term term, TextView text) {
-    Plan[] plans = term.plans();
-    for (Plan plan : plans) {
-      runtime.addPlan(plan, text);
-    }
+    // batch.add(exp1, text1); // nothing
+    // Reuse the same batch for every demo run, and hand all plans to the runtime at once.
+    batch
+        .add(exp2, text2) // default
+        .add(exp3, text3) // foobar
+        .add(exp4, text4) // baz
+        .add(exp5, text5) // foobar, qux, default, default, default
+        .submit(runtime);
   }
 }